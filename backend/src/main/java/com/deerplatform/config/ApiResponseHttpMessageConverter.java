@@ -0,0 +1,51 @@
+package com.deerplatform.config;
+
+import com.deerplatform.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+
+/**
+ * 统一响应消息转换器
+ *
+ * 使用启动时创建好的ObjectWriter直接写出ApiResponse，省去通用Jackson转换器每次响应
+ * 解析目标类型、创建writer的开销；ObjectMapper沿用Spring Boot配置的实例，日期等格式不变。
+ * 只负责写出，请求体仍由Jackson转换器读取。
+ */
+public class ApiResponseHttpMessageConverter extends AbstractHttpMessageConverter<ApiResponse<?>> {
+
+    private final ObjectWriter writer;
+
+    public ApiResponseHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.writer = objectMapper.writerFor(ApiResponse.class);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ApiResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ApiResponse<?> readInternal(Class<? extends ApiResponse<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("不支持读取ApiResponse", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ApiResponse<?> response, HttpOutputMessage outputMessage) throws IOException {
+        // 不关闭响应输出流，由容器负责
+        writer.writeValue(StreamUtils.nonClosing(outputMessage.getBody()), response);
+    }
+}
@@ -24,6 +24,9 @@ public class CorsConfig {
         // 允许的请求头
         configuration.setAllowedHeaders(Arrays.asList("*"));
         
+        // 允许前端读取的响应头（条件请求使用ETag）
+        configuration.setExposedHeaders(Arrays.asList("ETag"));
+        
         // 允许发送Cookie
         configuration.setAllowCredentials(true);
         
@@ -1,5 +1,6 @@
 package com.deerplatform.config;
 
+import com.deerplatform.dto.ApiResponse;
 import com.deerplatform.util.ResponseUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -13,7 +14,6 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import javax.servlet.http.HttpServletRequest;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -21,33 +21,33 @@ import java.util.stream.Collectors;
 public class GlobalExceptionHandler {
     
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleException(Exception e, HttpServletRequest request) {
+    public ResponseEntity<ApiResponse<?>> handleException(Exception e, HttpServletRequest request) {
         log.error("请求异常: {} - {}", request.getRequestURI(), e.getMessage(), e);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ResponseUtil.error("系统内部错误: " + e.getMessage()));
     }
     
     @ExceptionHandler(RuntimeException.class)
-    public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException e) {
+    public ResponseEntity<ApiResponse<?>> handleRuntimeException(RuntimeException e) {
         log.error("运行时异常: {}", e.getMessage(), e);
         return ResponseEntity.badRequest()
                 .body(ResponseUtil.badRequest(e.getMessage()));
     }
     
     @ExceptionHandler(BadCredentialsException.class)
-    public ResponseEntity<Map<String, Object>> handleBadCredentialsException(BadCredentialsException e) {
+    public ResponseEntity<ApiResponse<?>> handleBadCredentialsException(BadCredentialsException e) {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(ResponseUtil.unauthorized("用户名或密码错误"));
     }
     
     @ExceptionHandler(AccessDeniedException.class)
-    public ResponseEntity<Map<String, Object>> handleAccessDeniedException(AccessDeniedException e) {
+    public ResponseEntity<ApiResponse<?>> handleAccessDeniedException(AccessDeniedException e) {
         return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body(ResponseUtil.forbidden("访问被拒绝，权限不足"));
     }
     
     @ExceptionHandler({MethodArgumentNotValidException.class, BindException.class})
-    public ResponseEntity<Map<String, Object>> handleValidationException(Exception e) {
+    public ResponseEntity<ApiResponse<?>> handleValidationException(Exception e) {
         String message;
         if (e instanceof MethodArgumentNotValidException) {
             MethodArgumentNotValidException ex = (MethodArgumentNotValidException) e;
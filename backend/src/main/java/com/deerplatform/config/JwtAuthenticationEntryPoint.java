@@ -1,7 +1,9 @@
 package com.deerplatform.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.deerplatform.dto.ApiResponse;
 import com.deerplatform.util.ResponseUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
@@ -10,11 +12,16 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.Map;
 
 @Component
 public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
     
+    private final ObjectWriter writer;
+    
+    public JwtAuthenticationEntryPoint(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writerFor(ApiResponse.class);
+    }
+    
     @Override
     public void commence(HttpServletRequest request, 
                         HttpServletResponse response, 
@@ -23,9 +30,6 @@ public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
         response.setContentType("application/json;charset=UTF-8");
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         
-        Map<String, Object> result = ResponseUtil.unauthorized("访问被拒绝，请先登录");
-        
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.writeValue(response.getOutputStream(), result);
+        writer.writeValue(response.getOutputStream(), ResponseUtil.unauthorized("访问被拒绝，请先登录"));
     }
 }
\ No newline at end of file
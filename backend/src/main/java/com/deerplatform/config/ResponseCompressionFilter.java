@@ -0,0 +1,548 @@
+package com.deerplatform.config;
+
+import com.deerplatform.util.GzipCompressor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JSON接口响应压缩
+ *
+ * 只处理/api下的请求。响应体先写入每个线程复用的暂存缓冲区，超过最小长度且为application/json时
+ * 改为gzip流式压缩输出，之后的数据边写边压缩，不在内存中缓存整个响应；未超过时原样输出并带上Content-Length。
+ * gzip压缩器（Deflater及输出缓冲区）同样按线程复用，首次需要压缩时才创建。
+ * 异步请求（StreamingResponseBody等）在其他线程写出，不压缩。
+ * 目前只支持gzip（JDK没有Brotli编码器），编码协商集中在selectEncoding中。
+ */
+@Component
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+
+    private final boolean enabled;
+    private final int level;
+    private final int minSize;
+    private final int bufferSize;
+
+    // 每个线程复用的暂存缓冲区和压缩器
+    private final ThreadLocal<ThreadBuffers> threadBuffers;
+
+    // 按接口统计：请求方法 + 路由模式
+    private final Map<String, EndpointStats> endpointStats = new ConcurrentHashMap<>();
+
+    public ResponseCompressionFilter(@Value("${app.web.response-compression.enabled:true}") boolean enabled,
+                                     @Value("${app.web.response-compression.level:6}") int level,
+                                     @Value("${app.web.response-compression.min-size:2048}") int minSize,
+                                     @Value("${app.web.response-compression.buffer-size:8192}") int bufferSize) {
+        this.enabled = enabled;
+        this.level = level;
+        this.minSize = Math.max(1, minSize);
+        this.bufferSize = Math.max(512, bufferSize);
+        this.threadBuffers = ThreadLocal.withInitial(ThreadBuffers::new);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || "HEAD".equals(request.getMethod())
+                || !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        CompressingResponse wrapper = new CompressingResponse(request, response,
+                selectEncoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING)));
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // 响应由其他线程继续写出，改为直接输出
+                wrapper.detach();
+            } else {
+                wrapper.finish();
+            }
+        }
+        if (!request.isAsyncStarted() && wrapper.stream != null && wrapper.stream.rawBytes > 0) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "unmatched");
+            endpointStats.computeIfAbsent(endpoint, key -> new EndpointStats())
+                    .record(wrapper.stream.rawBytes, wrapper.stream.sentBytes, wrapper.stream.compressed);
+        }
+    }
+
+    /**
+     * 按Accept-Encoding选择压缩编码，客户端不接受时返回null
+     */
+    static String selectEncoding(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (!GZIP.equalsIgnoreCase(coding) && !"*".equals(coding)) {
+                continue;
+            }
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        if (Double.parseDouble(param.substring(2)) <= 0) {
+                            return null;
+                        }
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+            }
+            return GZIP;
+        }
+        return null;
+    }
+
+    /**
+     * 压缩统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> endpoints = new HashMap<>();
+        long rawBytes = 0;
+        long sentBytes = 0;
+        for (Map.Entry<String, EndpointStats> entry : endpointStats.entrySet()) {
+            Map<String, Object> stats = entry.getValue().toMap();
+            endpoints.put(entry.getKey(), stats);
+            rawBytes += (Long) stats.get("rawBytes");
+            sentBytes += (Long) stats.get("sentBytes");
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", enabled);
+        result.put("level", level);
+        result.put("minSize", minSize);
+        result.put("rawBytes", rawBytes);
+        result.put("sentBytes", sentBytes);
+        result.put("ratio", rawBytes > 0 ? (double) sentBytes / rawBytes : 1.0);
+        result.put("endpoints", endpoints);
+        return result;
+    }
+
+    /**
+     * 线程复用的缓冲区，同一线程同时处理多个响应时（如请求转发）后来者使用临时缓冲区
+     */
+    private class ThreadBuffers {
+        final byte[] staging = new byte[minSize];
+        GzipCompressor compressor;
+        boolean inUse;
+
+        GzipCompressor compressor() {
+            if (compressor == null) {
+                compressor = new GzipCompressor(level, bufferSize);
+            }
+            return compressor;
+        }
+    }
+
+    private ThreadBuffers acquire() {
+        ThreadBuffers buffers = threadBuffers.get();
+        if (buffers.inUse) {
+            buffers = new ThreadBuffers();
+        }
+        buffers.inUse = true;
+        return buffers;
+    }
+
+    private void release(ThreadBuffers buffers) {
+        if (buffers == threadBuffers.get()) {
+            buffers.inUse = false;
+        } else if (buffers.compressor != null) {
+            buffers.compressor.end();
+        }
+    }
+
+    private static class EndpointStats {
+        final LongAdder responses = new LongAdder();
+        final LongAdder compressedResponses = new LongAdder();
+        final LongAdder rawBytes = new LongAdder();
+        final LongAdder sentBytes = new LongAdder();
+
+        void record(long raw, long sent, boolean compressed) {
+            responses.increment();
+            if (compressed) {
+                compressedResponses.increment();
+            }
+            rawBytes.add(raw);
+            sentBytes.add(sent);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> result = new HashMap<>();
+            result.put("responses", responses.sum());
+            result.put("compressedResponses", compressedResponses.sum());
+            result.put("rawBytes", rawBytes.sum());
+            result.put("sentBytes", sentBytes.sum());
+            return result;
+        }
+    }
+
+    private class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private final String encoding;
+        private CompressingOutputStream stream;
+        private PrintWriter writer;
+        // 应用设置的Content-Length，确定不压缩时才传给容器
+        private long declaredLength = -1;
+        // 异步请求，不再处理输出
+        private boolean detached;
+
+        CompressingResponse(HttpServletRequest request, HttpServletResponse response, String encoding) {
+            super(response);
+            this.request = request;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter()已被调用");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream()已被调用");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        private CompressingOutputStream stream() {
+            if (stream == null) {
+                stream = new CompressingOutputStream(this);
+            }
+            return stream;
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            if (detached) {
+                super.setContentLengthLong(length);
+            } else {
+                declaredLength = length;
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && !detached) {
+                declaredLength = value != null ? Long.parseLong(value) : -1;
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && !detached) {
+                declaredLength = Long.parseLong(value);
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (stream != null) {
+                stream.flush();
+            } else {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (stream != null) {
+                stream.reset();
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            if (stream != null) {
+                stream.reset();
+            }
+            declaredLength = -1;
+            super.reset();
+        }
+
+        /**
+         * 是否应压缩：客户端接受、JSON类型、尚未设置编码，且声明的长度不小于阈值
+         */
+        boolean shouldCompress() {
+            return encoding != null
+                    && isJson()
+                    && getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                    && (declaredLength < 0 || declaredLength >= minSize)
+                    && getStatus() != HttpServletResponse.SC_PARTIAL_CONTENT;
+        }
+
+        boolean isJson() {
+            String contentType = getContentType();
+            return contentType != null && contentType.regionMatches(true, 0, "application/json", 0, 16);
+        }
+
+        /**
+         * JSON响应的内容随Accept-Encoding变化，告知缓存
+         */
+        void addVary() {
+            if (isJson() && !getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING)) {
+                super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.finish();
+            } else if (declaredLength >= 0 && !isCommitted()) {
+                super.setContentLengthLong(declaredLength);
+            }
+        }
+
+        void detach() throws IOException {
+            detached = true;
+            if (stream != null) {
+                stream.detach();
+            } else if (declaredLength >= 0 && !isCommitted()) {
+                super.setContentLengthLong(declaredLength);
+            }
+        }
+    }
+
+    private class CompressingOutputStream extends ServletOutputStream {
+
+        private static final int BUFFERING = 0;
+        private static final int COMPRESSING = 1;
+        private static final int PASSTHROUGH = 2;
+        private static final int FINISHED = 3;
+
+        private final CompressingResponse response;
+        private final byte[] single = new byte[1];
+        private int state = BUFFERING;
+        private ThreadBuffers buffers;
+        private int count;
+        private OutputStream out;
+        private GzipCompressor compressor;
+
+        long rawBytes;
+        long sentBytes;
+        boolean compressed;
+
+        CompressingOutputStream(CompressingResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length <= 0) {
+                return;
+            }
+            rawBytes += length;
+            switch (state) {
+                case BUFFERING:
+                    if (buffers == null) {
+                        // 异步请求在其他线程写出，不能使用本线程的缓冲区
+                        if (response.encoding == null || request().isAsyncStarted()) {
+                            startPassthrough();
+                            writeThrough(bytes, offset, length);
+                            return;
+                        }
+                        buffers = acquire();
+                    }
+                    if (count + length <= buffers.staging.length) {
+                        System.arraycopy(bytes, offset, buffers.staging, count, length);
+                        count += length;
+                        return;
+                    }
+                    if (response.shouldCompress()) {
+                        startCompressing();
+                        compressor.write(bytes, offset, length);
+                    } else {
+                        startPassthrough();
+                        writeThrough(bytes, offset, length);
+                    }
+                    return;
+                case COMPRESSING:
+                    compressor.write(bytes, offset, length);
+                    return;
+                case PASSTHROUGH:
+                    writeThrough(bytes, offset, length);
+                    return;
+                default:
+                    throw new IOException("响应已结束");
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            switch (state) {
+                case BUFFERING:
+                    // 待压缩的JSON继续暂存（最多min-size字节），其他响应（如流式输出）立即发出
+                    if (count > 0 && !response.shouldCompress()) {
+                        startPassthrough();
+                        out.flush();
+                    }
+                    return;
+                case COMPRESSING:
+                    compressor.flush();
+                    return;
+                case PASSTHROUGH:
+                    out.flush();
+                    return;
+                default:
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException("不支持非阻塞输出");
+        }
+
+        /**
+         * 丢弃尚未发出的内容（错误处理时重置响应）
+         */
+        void reset() {
+            if (state == COMPRESSING || state == FINISHED) {
+                throw new IllegalStateException("响应已开始压缩输出");
+            }
+            rawBytes = 0;
+            sentBytes = 0;
+            count = 0;
+        }
+
+        /**
+         * 异步请求：发出已暂存的内容，之后的数据直接输出
+         */
+        void detach() throws IOException {
+            if (state == BUFFERING) {
+                startPassthrough();
+            }
+            if (buffers != null) {
+                release(buffers);
+                buffers = null;
+            }
+        }
+
+        void finish() throws IOException {
+            try {
+                switch (state) {
+                    case BUFFERING:
+                        if (!response.isCommitted()) {
+                            response.addVary();
+                            ((HttpServletResponse) response.getResponse()).setContentLength(count);
+                        }
+                        out = response.getResponse().getOutputStream();
+                        if (count > 0) {
+                            out.write(buffers.staging, 0, count);
+                        }
+                        sentBytes = count;
+                        break;
+                    case COMPRESSING:
+                        compressor.finish();
+                        sentBytes = compressor.getWritten();
+                        break;
+                    default:
+                }
+            } finally {
+                state = FINISHED;
+                if (buffers != null) {
+                    release(buffers);
+                    buffers = null;
+                }
+            }
+        }
+
+        private void startCompressing() throws IOException {
+            response.addVary();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, response.encoding);
+            compressor = buffers.compressor();
+            compressor.start(response.getResponse().getOutputStream());
+            compressor.write(buffers.staging, 0, count);
+            compressed = true;
+            state = COMPRESSING;
+        }
+
+        private void startPassthrough() throws IOException {
+            HttpServletResponse target = (HttpServletResponse) response.getResponse();
+            if (!target.isCommitted()) {
+                response.addVary();
+                if (response.declaredLength >= 0) {
+                    target.setContentLengthLong(response.declaredLength);
+                }
+            }
+            out = target.getOutputStream();
+            if (count > 0) {
+                out.write(buffers.staging, 0, count);
+                sentBytes += count;
+            }
+            state = PASSTHROUGH;
+        }
+
+        private void writeThrough(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            sentBytes += length;
+        }
+
+        private HttpServletRequest request() {
+            return response.request;
+        }
+    }
+}
@@ -1,13 +1,29 @@
 package com.deerplatform.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final ObjectMapper objectMapper;
+
+    public WebConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // 统一响应优先使用预先创建writer的转换器
+        converters.add(0, new ApiResponseHttpMessageConverter(objectMapper));
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // 配置静态资源映射 - 指向项目根目录的frontend文件夹
@@ -1,26 +1,50 @@
 package com.deerplatform.controller;
 
+import com.deerplatform.config.ResponseCompressionFilter;
+import com.deerplatform.dto.ApiResponse;
+import com.deerplatform.dto.PageResponse;
 import com.deerplatform.dto.UserDTO;
 import com.deerplatform.dto.PostDTO;
+import com.deerplatform.dto.PostSummaryDTO;
 import com.deerplatform.entity.User;
 import com.deerplatform.entity.Post;
+import com.deerplatform.service.AdminExporter;
 import com.deerplatform.service.UserService;
 import com.deerplatform.service.PostService;
 import com.deerplatform.service.CategoryService;
+import com.deerplatform.service.PostContentCompression;
+import com.deerplatform.service.PostContentMigrator;
+import com.deerplatform.service.PostContentSplitMigrator;
+import com.deerplatform.service.PostCounterShards;
+import com.deerplatform.service.PostCountCache;
+import com.deerplatform.service.PostDetailCache;
+import com.deerplatform.service.PostEngagementBitmaps;
+import com.deerplatform.service.PostHotRanking;
+import com.deerplatform.service.PostLeaderboard;
+import com.deerplatform.service.PostListCache;
 import com.deerplatform.repository.UserRepository;
 import com.deerplatform.repository.PostRepository;
 import com.deerplatform.repository.CategoryRepository;
+import com.deerplatform.search.PostSearchIndexer;
+import com.deerplatform.search.PostSuggester;
+import com.deerplatform.search.SearchBackendRouter;
 import com.deerplatform.util.ResponseUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +61,21 @@ public class AdminController {
     private final UserRepository userRepository;
     private final PostRepository postRepository;
     private final CategoryRepository categoryRepository;
+    private final PostDetailCache postDetailCache;
+    private final PostListCache postListCache;
+    private final PostCountCache postCountCache;
+    private final PostSearchIndexer postSearchIndexer;
+    private final SearchBackendRouter searchBackendRouter;
+    private final PostSuggester postSuggester;
+    private final PostCounterShards postCounterShards;
+    private final PostEngagementBitmaps postEngagementBitmaps;
+    private final PostLeaderboard postLeaderboard;
+    private final PostHotRanking postHotRanking;
+    private final PostContentCompression postContentCompression;
+    private final PostContentMigrator postContentMigrator;
+    private final PostContentSplitMigrator postContentSplitMigrator;
+    private final ResponseCompressionFilter responseCompressionFilter;
+    private final AdminExporter adminExporter;
     
     /**
      * 检查管理员权限
@@ -51,7 +90,7 @@ public class AdminController {
      * 获取管理员仪表板统计数据
      */
     @GetMapping("/dashboard/stats")
-    public ResponseEntity<Map<String, Object>> getDashboardStats(
+    public ResponseEntity<ApiResponse<?>> getDashboardStats(
             @AuthenticationPrincipal User currentUser) {
         try {
             checkAdminPermission(currentUser);
@@ -99,7 +138,7 @@ public class AdminController {
      * 获取用户列表（管理员）
      */
     @GetMapping("/users")
-    public ResponseEntity<Map<String, Object>> getUsers(
+    public ResponseEntity<ApiResponse<?>> getUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String status,
@@ -125,7 +164,7 @@ public class AdminController {
             }
             
             Page<UserDTO> userDTOs = users.map(UserDTO::fromEntity);
-            return ResponseEntity.ok(ResponseUtil.success("获取用户列表成功", userDTOs));
+            return ResponseEntity.ok(ResponseUtil.success("获取用户列表成功", PageResponse.of(userDTOs)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ResponseUtil.error("获取用户列表失败: " + e.getMessage()));
         }
@@ -135,7 +174,7 @@ public class AdminController {
      * 更新用户状态（管理员）
      */
     @PutMapping("/users/{userId}/status")
-    public ResponseEntity<Map<String, Object>> updateUserStatus(
+    public ResponseEntity<ApiResponse<?>> updateUserStatus(
             @PathVariable Long userId,
             @RequestParam String status,
             @AuthenticationPrincipal User currentUser) {
@@ -159,7 +198,7 @@ public class AdminController {
      * 获取帖子列表（管理员）
      */
     @GetMapping("/posts")
-    public ResponseEntity<Map<String, Object>> getPosts(
+    public ResponseEntity<ApiResponse<?>> getPosts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String status,
@@ -170,51 +209,104 @@ public class AdminController {
             checkAdminPermission(currentUser);
             
             Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-            Page<Post> posts;
+            Page<PostSummaryDTO> postDTOs;
             
             if (keyword != null && !keyword.trim().isEmpty()) {
                 // 搜索帖子
                 Post.Status postStatus = status != null ? Post.Status.valueOf(status.toUpperCase()) : null;
-                if (postStatus != null) {
-                    posts = postRepository.searchByKeyword(keyword, postStatus, pageable);
-                } else {
-                    // 搜索所有状态的帖子
-                    posts = postRepository.findByTitleContainingOrContentContaining(keyword, keyword, pageable);
-                }
+                postDTOs = postService.searchPostsForAdmin(keyword, postStatus, page, size);
             } else if (status != null) {
-                // 按状态筛选
+                // 按状态筛选，总数取自计数缓存
                 Post.Status postStatus = Post.Status.valueOf(status.toUpperCase());
-                posts = postRepository.findByStatus(postStatus, pageable);
+                postDTOs = postCountCache.toPage(postRepository.findSummariesByStatus(postStatus, pageable),
+                        postStatus, null, null);
             } else {
-                // 获取所有帖子
-                posts = postRepository.findAll(pageable);
+                // 获取所有帖子，总数取自计数缓存
+                postDTOs = postCountCache.toPage(postRepository.findAllSummaries(pageable), null, null, null);
             }
             
-            Page<PostDTO> postDTOs = posts.map(PostDTO::fromEntity);
-            return ResponseEntity.ok(ResponseUtil.success("获取帖子列表成功", postDTOs));
+            return ResponseEntity.ok(ResponseUtil.success("获取帖子列表成功", PageResponse.of(postDTOs)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ResponseUtil.error("获取帖子列表失败: " + e.getMessage()));
         }
     }
     
+    /**
+     * 导出帖子（管理员），以CSV或NDJSON流式输出全部匹配的帖子
+     * 参数错误和权限不足时抛出的异常由GlobalExceptionHandler返回错误信息
+     */
+    @GetMapping("/export/posts")
+    public ResponseEntity<StreamingResponseBody> exportPosts(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long categoryId,
+            @AuthenticationPrincipal User currentUser) {
+        checkAdminPermission(currentUser);
+        
+        AdminExporter.Format exportFormat = AdminExporter.Format.of(format);
+        Post.Status postStatus = status != null ? Post.Status.valueOf(status.toUpperCase()) : null;
+        return exportResponse("posts", exportFormat,
+                out -> adminExporter.exportPosts(postStatus, categoryId, exportFormat, out));
+    }
+    
+    /**
+     * 导出用户（管理员），以CSV或NDJSON流式输出全部匹配的用户，不含密码
+     */
+    @GetMapping("/export/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String status,
+            @AuthenticationPrincipal User currentUser) {
+        checkAdminPermission(currentUser);
+        
+        AdminExporter.Format exportFormat = AdminExporter.Format.of(format);
+        User.Status userStatus = status != null ? User.Status.valueOf(status.toUpperCase()) : null;
+        return exportResponse("users", exportFormat,
+                out -> adminExporter.exportUsers(userStatus, exportFormat, out));
+    }
+    
+    /**
+     * 导出响应：作为附件下载，文件名带导出时间
+     */
+    private ResponseEntity<StreamingResponseBody> exportResponse(String name, AdminExporter.Format format,
+                                                                 StreamingResponseBody body) {
+        boolean csv = format == AdminExporter.Format.CSV;
+        String filename = name + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+                + (csv ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+    
     /**
      * 更新帖子状态（管理员）
      */
     @PutMapping("/posts/{postId}/status")
-    public ResponseEntity<Map<String, Object>> updatePostStatus(
+    public ResponseEntity<ApiResponse<?>> updatePostStatus(
             @PathVariable Long postId,
             @RequestParam String status,
             @AuthenticationPrincipal User currentUser) {
         try {
             checkAdminPermission(currentUser);
+            postContentSplitMigrator.ensureMigrated(postId);
             
-            Post post = postRepository.findById(postId)
+            Post post = postRepository.findWithAuthorAndCategoryById(postId)
                 .orElseThrow(() -> new RuntimeException("帖子不存在"));
             
+            Post.Status oldStatus = post.getStatus();
             Post.Status newStatus = Post.Status.valueOf(status.toUpperCase());
             post.setStatus(newStatus);
             post.setUpdatedAt(LocalDateTime.now());
             postRepository.save(post);
+            postDetailCache.invalidate(postId);
+            postListCache.invalidateAll();
+            postCountCache.onPostMoved(oldStatus, post.getCategoryId(), newStatus, post.getCategoryId(), post.getAuthorId());
+            postSearchIndexer.onPostSaved(post);
+            postSuggester.onPostSaved(post);
+            postLeaderboard.onPostChanged(postId);
+            postHotRanking.onPostChanged(postId, post.getCategoryId(), newStatus);
             
             return ResponseEntity.ok(ResponseUtil.success("帖子状态更新成功", PostDTO.fromEntity(post)));
         } catch (Exception e) {
@@ -226,16 +318,13 @@ public class AdminController {
      * 删除帖子（管理员）
      */
     @DeleteMapping("/posts/{postId}")
-    public ResponseEntity<Map<String, Object>> deletePost(
+    public ResponseEntity<ApiResponse<?>> deletePost(
             @PathVariable Long postId,
             @AuthenticationPrincipal User currentUser) {
         try {
             checkAdminPermission(currentUser);
             
-            Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("帖子不存在"));
-            
-            postRepository.delete(post);
+            postService.deletePost(postId, currentUser);
             
             return ResponseEntity.ok(ResponseUtil.success("帖子删除成功", null));
         } catch (Exception e) {
@@ -243,11 +332,40 @@ public class AdminController {
         }
     }
     
+    /**
+     * 获取缓存统计信息
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse<?>> getCacheStats(
+            @AuthenticationPrincipal User currentUser) {
+        try {
+            checkAdminPermission(currentUser);
+            
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("postDetail", postDetailCache.getStats());
+            stats.put("postList", postListCache.getStats());
+            stats.put("postCount", postCountCache.getStats());
+            stats.put("searchIndex", postSearchIndexer.getStats());
+            stats.put("searchBackend", searchBackendRouter.getBackendName());
+            stats.put("suggest", postSuggester.getStats());
+            stats.put("counterShards", postCounterShards.getStats());
+            stats.put("engagementBitmaps", postEngagementBitmaps.getStats());
+            stats.put("contentCompression", postContentCompression.getStats());
+            stats.put("contentMigration", postContentMigrator.getStats());
+            stats.put("contentSplit", postContentSplitMigrator.getStats());
+            stats.put("responseCompression", responseCompressionFilter.getStats());
+            
+            return ResponseEntity.ok(ResponseUtil.success("获取缓存统计成功", stats));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ResponseUtil.error("获取缓存统计失败: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 获取最新用户活动
      */
     @GetMapping("/activities/recent")
-    public ResponseEntity<Map<String, Object>> getRecentActivities(
+    public ResponseEntity<ApiResponse<?>> getRecentActivities(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @AuthenticationPrincipal User currentUser) {
@@ -260,11 +378,12 @@ public class AdminController {
             Page<User> recentUsers = userRepository.findAll(pageable);
             
             // 获取最新发布的帖子
-            Page<Post> recentPosts = postRepository.findAll(pageable);
+            Page<PostSummaryDTO> recentPosts = postCountCache.toPage(postRepository.findAllSummaries(pageable),
+                    null, null, null);
             
             Map<String, Object> activities = new HashMap<>();
-            activities.put("recentUsers", recentUsers.map(UserDTO::fromEntity));
-            activities.put("recentPosts", recentPosts.map(PostDTO::fromEntity));
+            activities.put("recentUsers", PageResponse.of(recentUsers.map(UserDTO::fromEntity)));
+            activities.put("recentPosts", PageResponse.of(recentPosts));
             
             return ResponseEntity.ok(ResponseUtil.success("获取最新活动成功", activities));
         } catch (Exception e) {
@@ -276,7 +395,7 @@ public class AdminController {
      * 获取系统概览信息
      */
     @GetMapping("/overview")
-    public ResponseEntity<Map<String, Object>> getSystemOverview(
+    public ResponseEntity<ApiResponse<?>> getSystemOverview(
             @AuthenticationPrincipal User currentUser) {
         try {
             checkAdminPermission(currentUser);
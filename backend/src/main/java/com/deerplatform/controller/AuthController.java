@@ -1,5 +1,6 @@
 package com.deerplatform.controller;
 
+import com.deerplatform.dto.ApiResponse;
 import com.deerplatform.dto.EmailRegisterRequest;
 import com.deerplatform.dto.LoginRequest;
 import com.deerplatform.dto.RegisterRequest;
@@ -35,7 +36,7 @@ public class AuthController {
     private final VerificationService verificationService;
     
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<ApiResponse<?>> login(@Valid @RequestBody LoginRequest loginRequest) {
         try {
             // 认证用户
             Authentication authentication = authenticationManager.authenticate(
@@ -69,7 +70,7 @@ public class AuthController {
     }
     
     @PostMapping("/register")
-    public ResponseEntity<Map<String, Object>> register(@Valid @RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<ApiResponse<?>> register(@Valid @RequestBody RegisterRequest registerRequest) {
         try {
             UserDTO user = userService.register(registerRequest);
             return ResponseEntity.ok(ResponseUtil.success("注册成功", user));
@@ -79,13 +80,13 @@ public class AuthController {
     }
     
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, Object>> logout() {
+    public ResponseEntity<ApiResponse<?>> logout() {
         SecurityContextHolder.clearContext();
         return ResponseEntity.ok(ResponseUtil.success("退出登录成功"));
     }
     
     @GetMapping("/me")
-    public ResponseEntity<Map<String, Object>> getCurrentUser(Authentication authentication) {
+    public ResponseEntity<ApiResponse<?>> getCurrentUser(Authentication authentication) {
         try {
             if (authentication == null || !authentication.isAuthenticated()) {
                 return ResponseEntity.status(401).body(ResponseUtil.unauthorized("未登录"));
@@ -101,7 +102,7 @@ public class AuthController {
     }
     
     @PutMapping("/profile")
-    public ResponseEntity<Map<String, Object>> updateProfile(
+    public ResponseEntity<ApiResponse<?>> updateProfile(
             @RequestBody UserDTO userDTO,
             Authentication authentication) {
         try {
@@ -122,7 +123,7 @@ public class AuthController {
      * 发送注册验证码
      */
     @PostMapping("/send-verification-code")
-    public ResponseEntity<Map<String, Object>> sendVerificationCode(
+    public ResponseEntity<ApiResponse<?>> sendVerificationCode(
             @RequestParam String email,
             HttpServletRequest request) {
         try {
@@ -139,7 +140,7 @@ public class AuthController {
      * 邮箱注册（需要验证码）
      */
     @PostMapping("/register-with-email")
-    public ResponseEntity<Map<String, Object>> registerWithEmail(
+    public ResponseEntity<ApiResponse<?>> registerWithEmail(
             @Valid @RequestBody EmailRegisterRequest request) {
         try {
             // 验证密码确认
@@ -173,7 +174,7 @@ public class AuthController {
      * 发送密码重置验证码
      */
     @PostMapping("/send-reset-code")
-    public ResponseEntity<Map<String, Object>> sendPasswordResetCode(
+    public ResponseEntity<ApiResponse<?>> sendPasswordResetCode(
             @RequestParam String email,
             HttpServletRequest request) {
         try {
@@ -190,7 +191,7 @@ public class AuthController {
      * 重置密码（需要验证码）
      */
     @PostMapping("/reset-password")
-    public ResponseEntity<Map<String, Object>> resetPassword(
+    public ResponseEntity<ApiResponse<?>> resetPassword(
             @RequestParam String email,
             @RequestParam String newPassword,
             @RequestParam String confirmPassword,
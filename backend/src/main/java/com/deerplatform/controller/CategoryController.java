@@ -1,12 +1,20 @@
 package com.deerplatform.controller;
 
+import com.deerplatform.dto.ApiResponse;
 import com.deerplatform.dto.CategoryDTO;
+import com.deerplatform.dto.PageResponse;
+import com.deerplatform.dto.PostSummaryDTO;
 import com.deerplatform.entity.Category;
 import com.deerplatform.entity.User;
 import com.deerplatform.service.CategoryService;
+import com.deerplatform.service.PostLeaderboard;
+import com.deerplatform.util.ETagUtil;
 import com.deerplatform.util.ResponseUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -23,12 +31,13 @@ import java.util.Map;
 public class CategoryController {
     
     private final CategoryService categoryService;
+    private final PostLeaderboard postLeaderboard;
     
     /**
      * 创建分类（仅管理员）
      */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createCategory(
+    public ResponseEntity<ApiResponse<?>> createCategory(
             @RequestParam String name,
             @RequestParam(required = false) String description,
             @RequestParam(required = false) String icon,
@@ -50,7 +59,7 @@ public class CategoryController {
      * 更新分类（仅管理员）
      */
     @PutMapping("/{categoryId}")
-    public ResponseEntity<Map<String, Object>> updateCategory(
+    public ResponseEntity<ApiResponse<?>> updateCategory(
             @PathVariable Long categoryId,
             @RequestParam String name,
             @RequestParam(required = false) String description,
@@ -73,7 +82,7 @@ public class CategoryController {
      * 删除分类（仅管理员）
      */
     @DeleteMapping("/{categoryId}")
-    public ResponseEntity<Map<String, Object>> deleteCategory(
+    public ResponseEntity<ApiResponse<?>> deleteCategory(
             @PathVariable Long categoryId,
             @AuthenticationPrincipal User currentUser) {
         try {
@@ -93,7 +102,7 @@ public class CategoryController {
      * 获取分类详情
      */
     @GetMapping("/{categoryId}")
-    public ResponseEntity<Map<String, Object>> getCategoryById(@PathVariable Long categoryId) {
+    public ResponseEntity<ApiResponse<?>> getCategoryById(@PathVariable Long categoryId) {
         try {
             CategoryDTO category = categoryService.getCategoryById(categoryId);
             return ResponseEntity.ok(ResponseUtil.success("获取分类详情成功", category));
@@ -102,14 +111,42 @@ public class CategoryController {
         }
     }
     
+    /**
+     * 获取分类排行榜（metric: views 浏览量，likes 点赞数）
+     */
+    @GetMapping("/{categoryId}/leaderboard")
+    public ResponseEntity<ApiResponse<?>> getLeaderboard(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "views") String metric,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<PostSummaryDTO> posts = postLeaderboard.getTop(categoryId, metric, limit);
+            return ResponseEntity.ok(ResponseUtil.success("获取分类排行榜成功", posts));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ResponseUtil.error("获取分类排行榜失败: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 获取所有激活的分类
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllActiveCategories() {
+    public ResponseEntity<ApiResponse<?>> getAllActiveCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            // 分类未变化时直接返回304，不查询数据库
+            String etag = ETagUtil.forGeneration("categories", categoryService.getCategoryListVersion());
+            if (ETagUtil.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache())
+                        .build();
+            }
             List<CategoryDTO> categories = categoryService.getAllActiveCategories();
-            return ResponseEntity.ok(ResponseUtil.success("获取分类列表成功", categories));
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(ResponseUtil.success("获取分类列表成功", categories));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ResponseUtil.error("获取分类列表失败: " + e.getMessage()));
         }
@@ -119,7 +156,7 @@ public class CategoryController {
      * 分页获取分类列表（管理员）
      */
     @GetMapping("/admin")
-    public ResponseEntity<Map<String, Object>> getCategoriesForAdmin(
+    public ResponseEntity<ApiResponse<?>> getCategoriesForAdmin(
             @RequestParam(defaultValue = "ACTIVE") String status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
@@ -132,7 +169,7 @@ public class CategoryController {
             
             Category.Status categoryStatus = Category.Status.valueOf(status.toUpperCase());
             Page<CategoryDTO> categories = categoryService.getCategories(categoryStatus, page, size);
-            return ResponseEntity.ok(ResponseUtil.success("获取分类列表成功", categories));
+            return ResponseEntity.ok(ResponseUtil.success("获取分类列表成功", PageResponse.of(categories)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ResponseUtil.error("获取分类列表失败: " + e.getMessage()));
         }
@@ -142,7 +179,7 @@ public class CategoryController {
      * 更新分类排序（仅管理员）
      */
     @PutMapping("/{categoryId}/sort")
-    public ResponseEntity<Map<String, Object>> updateCategorySortOrder(
+    public ResponseEntity<ApiResponse<?>> updateCategorySortOrder(
             @PathVariable Long categoryId,
             @RequestParam Integer sortOrder,
             @AuthenticationPrincipal User currentUser) {
@@ -163,7 +200,7 @@ public class CategoryController {
      * 获取分类统计信息
      */
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getCategoryStats() {
+    public ResponseEntity<ApiResponse<?>> getCategoryStats() {
         try {
             long activeCount = categoryService.countActiveCategories();
             Map<String, Object> stats = new HashMap<>();
@@ -1,5 +1,6 @@
 package com.deerplatform.controller;
 
+import com.deerplatform.dto.ApiResponse;
 import com.deerplatform.entity.User;
 import com.deerplatform.service.FileService;
 import com.deerplatform.util.ResponseUtil;
@@ -24,7 +25,7 @@ public class FileController {
      * 上传头像
      */
     @PostMapping("/avatar")
-    public ResponseEntity<Map<String, Object>> uploadAvatar(
+    public ResponseEntity<ApiResponse<?>> uploadAvatar(
             @RequestParam("file") MultipartFile file,
             @AuthenticationPrincipal User currentUser) {
         try {
@@ -45,7 +46,7 @@ public class FileController {
      * 上传帖子图片
      */
     @PostMapping("/post-image")
-    public ResponseEntity<Map<String, Object>> uploadPostImage(
+    public ResponseEntity<ApiResponse<?>> uploadPostImage(
             @RequestParam("file") MultipartFile file,
             @AuthenticationPrincipal User currentUser) {
         try {
@@ -66,7 +67,7 @@ public class FileController {
      * 批量上传帖子图片
      */
     @PostMapping("/post-images")
-    public ResponseEntity<Map<String, Object>> uploadPostImages(
+    public ResponseEntity<ApiResponse<?>> uploadPostImages(
             @RequestParam("files") MultipartFile[] files,
             @AuthenticationPrincipal User currentUser) {
         try {
@@ -91,7 +92,7 @@ public class FileController {
      * 删除文件
      */
     @DeleteMapping
-    public ResponseEntity<Map<String, Object>> deleteFile(
+    public ResponseEntity<ApiResponse<?>> deleteFile(
             @RequestParam("path") String filePath,
             @AuthenticationPrincipal User currentUser) {
         try {
@@ -1,18 +1,30 @@
 package com.deerplatform.controller;
 
+import com.deerplatform.dto.ApiResponse;
+import com.deerplatform.dto.CursorPage;
+import com.deerplatform.dto.PageResponse;
 import com.deerplatform.dto.PostCreateRequest;
 import com.deerplatform.dto.PostDTO;
+import com.deerplatform.dto.PostStatusBatchRequest;
+import com.deerplatform.dto.PostSummaryDTO;
 import com.deerplatform.dto.PostUpdateRequest;
+import com.deerplatform.dto.SuggestionDTO;
 import com.deerplatform.entity.User;
 import com.deerplatform.service.PostService;
+import com.deerplatform.util.ETagUtil;
 import com.deerplatform.util.ResponseUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -27,7 +39,7 @@ public class PostController {
      * 创建帖子
      */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createPost(
+    public ResponseEntity<ApiResponse<?>> createPost(
             @Valid @RequestBody PostCreateRequest request,
             @AuthenticationPrincipal User currentUser) {
         try {
@@ -42,7 +54,7 @@ public class PostController {
      * 更新帖子
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> updatePost(
+    public ResponseEntity<ApiResponse<?>> updatePost(
             @PathVariable Long id,
             @Valid @RequestBody PostUpdateRequest request,
             @AuthenticationPrincipal User currentUser) {
@@ -58,7 +70,7 @@ public class PostController {
      * 删除帖子
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> deletePost(
+    public ResponseEntity<ApiResponse<?>> deletePost(
             @PathVariable Long id,
             @AuthenticationPrincipal User currentUser) {
         try {
@@ -73,10 +85,24 @@ public class PostController {
      * 获取帖子详情
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getPost(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<?>> getPost(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            // 详情在缓存中且未变化时直接返回304，不查询数据库，浏览量照常记录
+            PostDTO cached = ifNoneMatch != null ? postService.getCachedPost(id) : null;
+            if (cached != null) {
+                String etag = postETag(cached);
+                if (ETagUtil.matches(ifNoneMatch, etag)) {
+                    postService.recordView(id);
+                    return notModified(etag);
+                }
+            }
             PostDTO post = postService.getPostById(id);
-            return ResponseEntity.ok(ResponseUtil.success("获取帖子成功", post));
+            return ResponseEntity.ok()
+                    .eTag(postETag(post))
+                    .cacheControl(CacheControl.noCache())
+                    .body(ResponseUtil.success("获取帖子成功", post));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ResponseUtil.error("获取帖子失败: " + e.getMessage()));
         }
@@ -86,13 +112,39 @@ public class PostController {
      * 获取帖子列表
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getPosts(
+    public ResponseEntity<ApiResponse<?>> getPosts(
             @RequestParam(required = false) Long categoryId,
             @RequestParam(defaultValue = "latest") String sortBy,
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            // 版本在查询之前读取，查询期间发生的写操作只会使ETag提前失效
+            String etag = ETagUtil.forGeneration("posts", postService.getPostListVersion());
+            if (ETagUtil.matches(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+            Page<PostSummaryDTO> posts = postService.getPosts(categoryId, sortBy, page, size);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(ResponseUtil.success("获取帖子列表成功", PageResponse.of(posts)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ResponseUtil.error("获取帖子列表失败: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * 游标分页获取帖子列表
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponse<?>> getPostsByCursor(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "latest") String sortBy,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size) {
         try {
-            Page<PostDTO> posts = postService.getPosts(categoryId, sortBy, page, size);
+            CursorPage<PostSummaryDTO> posts = postService.getPostsByCursor(categoryId, sortBy, cursor, size);
             return ResponseEntity.ok(ResponseUtil.success("获取帖子列表成功", posts));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ResponseUtil.error("获取帖子列表失败: " + e.getMessage()));
@@ -103,28 +155,47 @@ public class PostController {
      * 搜索帖子
      */
     @GetMapping("/search")
-    public ResponseEntity<Map<String, Object>> searchPosts(
+    public ResponseEntity<ApiResponse<?>> searchPosts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
         try {
-            Page<PostDTO> posts = postService.searchPosts(keyword, page, size);
-            return ResponseEntity.ok(ResponseUtil.success("搜索帖子成功", posts));
+            // withTotal=false 时不统计总数，只返回是否有下一页（last字段）
+            Slice<PostSummaryDTO> posts = withTotal
+                    ? postService.searchPosts(keyword, page, size)
+                    : postService.searchPostSlice(keyword, page, size);
+            return ResponseEntity.ok(ResponseUtil.success("搜索帖子成功", PageResponse.of(posts)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ResponseUtil.error("搜索帖子失败: " + e.getMessage()));
         }
     }
     
+    /**
+     * 搜索建议
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<?>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<SuggestionDTO> suggestions = postService.suggest(prefix, Math.min(limit, 20));
+            return ResponseEntity.ok(ResponseUtil.success("获取搜索建议成功", suggestions));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ResponseUtil.error("获取搜索建议失败: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 获取热门帖子
      */
     @GetMapping("/popular")
-    public ResponseEntity<Map<String, Object>> getPopularPosts(
+    public ResponseEntity<ApiResponse<?>> getPopularPosts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         try {
-            Page<PostDTO> posts = postService.getPopularPosts(page, size);
-            return ResponseEntity.ok(ResponseUtil.success("获取热门帖子成功", posts));
+            Page<PostSummaryDTO> posts = postService.getPopularPosts(page, size);
+            return ResponseEntity.ok(ResponseUtil.success("获取热门帖子成功", PageResponse.of(posts)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ResponseUtil.error("获取热门帖子失败: " + e.getMessage()));
         }
@@ -134,7 +205,7 @@ public class PostController {
      * 获取用户的帖子
      */
     @GetMapping("/my")
-    public ResponseEntity<Map<String, Object>> getMyPosts(
+    public ResponseEntity<ApiResponse<?>> getMyPosts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @AuthenticationPrincipal User currentUser) {
@@ -142,8 +213,8 @@ public class PostController {
             if (currentUser == null) {
                 return ResponseEntity.status(401).body(ResponseUtil.error("用户未登录"));
             }
-            Page<PostDTO> posts = postService.getUserPosts(currentUser, page, size);
-            return ResponseEntity.ok(ResponseUtil.success("获取我的帖子成功", posts));
+            Page<PostSummaryDTO> posts = postService.getUserPosts(currentUser, page, size);
+            return ResponseEntity.ok(ResponseUtil.success("获取我的帖子成功", PageResponse.of(posts)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ResponseUtil.error("获取我的帖子失败: " + e.getMessage()));
         }
@@ -153,7 +224,7 @@ public class PostController {
      * 点赞/取消点赞帖子
      */
     @PostMapping("/{id}/like")
-    public ResponseEntity<Map<String, Object>> toggleLike(
+    public ResponseEntity<ApiResponse<?>> toggleLike(
             @PathVariable Long id,
             @AuthenticationPrincipal User currentUser) {
         try {
@@ -165,11 +236,41 @@ public class PostController {
         }
     }
     
+    /**
+     * 点赞帖子（幂等）
+     */
+    @PutMapping("/{id}/like")
+    public ResponseEntity<ApiResponse<?>> likePost(
+            @PathVariable Long id,
+            @AuthenticationPrincipal User currentUser) {
+        try {
+            int likeCount = postService.likePost(id, currentUser.getId());
+            return ResponseEntity.ok(ResponseUtil.success("点赞成功", Map.of("isLiked", true, "likeCount", likeCount)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ResponseUtil.error("点赞失败: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * 取消点赞（幂等）
+     */
+    @DeleteMapping("/{id}/like")
+    public ResponseEntity<ApiResponse<?>> unlikePost(
+            @PathVariable Long id,
+            @AuthenticationPrincipal User currentUser) {
+        try {
+            int likeCount = postService.unlikePost(id, currentUser.getId());
+            return ResponseEntity.ok(ResponseUtil.success("取消点赞成功", Map.of("isLiked", false, "likeCount", likeCount)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ResponseUtil.error("取消点赞失败: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 收藏/取消收藏帖子
      */
     @PostMapping("/{id}/favorite")
-    public ResponseEntity<Map<String, Object>> toggleFavorite(
+    public ResponseEntity<ApiResponse<?>> toggleFavorite(
             @PathVariable Long id,
             @AuthenticationPrincipal User currentUser) {
         try {
@@ -181,11 +282,27 @@ public class PostController {
         }
     }
     
+    /**
+     * 批量获取帖子的点赞和收藏状态（列表页使用）
+     */
+    @PostMapping("/status/batch")
+    public ResponseEntity<ApiResponse<?>> getPostStatuses(
+            @Valid @RequestBody PostStatusBatchRequest request,
+            @AuthenticationPrincipal User currentUser) {
+        try {
+            Map<Long, Map<String, Object>> statuses = postService.getPostStatuses(request.getPostIds(),
+                    currentUser != null ? currentUser.getId() : null);
+            return ResponseEntity.ok(ResponseUtil.success("获取状态成功", statuses));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ResponseUtil.error("获取状态失败: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 获取帖子的点赞和收藏状态
      */
     @GetMapping("/{id}/status")
-    public ResponseEntity<Map<String, Object>> getPostStatus(
+    public ResponseEntity<ApiResponse<?>> getPostStatus(
             @PathVariable Long id,
             @AuthenticationPrincipal User currentUser) {
         try {
@@ -195,4 +312,27 @@ public class PostController {
             return ResponseEntity.badRequest().body(ResponseUtil.error("获取状态失败: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * 帖子详情的ETag：点赞、收藏、评论数变化不更新updatedAt，需一并计入；
+     * 浏览量每次请求都会变化，计入后条件请求几乎无法命中，因此不计入，304时客户端显示的浏览量可能略旧
+     */
+    private String postETag(PostDTO post) {
+        return ETagUtil.forUpdatedAt("post", post.getId(), post.getUpdatedAt(),
+                count(post.getLikeCount()), count(post.getFavoriteCount()), count(post.getCommentCount()));
+    }
+    
+    private static long count(Integer value) {
+        return value != null ? value : 0;
+    }
+    
+    /**
+     * 内容未变化，返回不带响应体的304
+     */
+    private ResponseEntity<ApiResponse<?>> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+}
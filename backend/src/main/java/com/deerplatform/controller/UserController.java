@@ -1,7 +1,9 @@
 package com.deerplatform.controller;
 
+import com.deerplatform.dto.ApiResponse;
 import com.deerplatform.dto.ChangePasswordRequest;
-import com.deerplatform.dto.PostDTO;
+import com.deerplatform.dto.PageResponse;
+import com.deerplatform.dto.PostSummaryDTO;
 import com.deerplatform.dto.UserDTO;
 import com.deerplatform.entity.User;
 import com.deerplatform.service.PostService;
@@ -31,7 +33,7 @@ public class UserController {
      * 获取当前用户资料
      */
     @GetMapping("/profile")
-    public ResponseEntity<Map<String, Object>> getUserProfile(Authentication authentication) {
+    public ResponseEntity<ApiResponse<?>> getUserProfile(Authentication authentication) {
         try {
             if (authentication == null || !authentication.isAuthenticated()) {
                 return ResponseEntity.status(401).body(ResponseUtil.unauthorized("未登录"));
@@ -50,7 +52,7 @@ public class UserController {
      * 更新用户资料
      */
     @PutMapping("/profile")
-    public ResponseEntity<Map<String, Object>> updateUserProfile(
+    public ResponseEntity<ApiResponse<?>> updateUserProfile(
             @RequestBody UserDTO userDTO,
             Authentication authentication) {
         try {
@@ -71,7 +73,7 @@ public class UserController {
      * 修改密码
      */
     @PutMapping("/password")
-    public ResponseEntity<Map<String, Object>> changePassword(
+    public ResponseEntity<ApiResponse<?>> changePassword(
             @Valid @RequestBody ChangePasswordRequest request,
             Authentication authentication) {
         try {
@@ -92,7 +94,7 @@ public class UserController {
      * 获取用户发布的帖子
      */
     @GetMapping("/posts")
-    public ResponseEntity<Map<String, Object>> getUserPosts(
+    public ResponseEntity<ApiResponse<?>> getUserPosts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             Authentication authentication) {
@@ -102,9 +104,9 @@ public class UserController {
             }
             
             String username = authentication.getName();
-            Page<PostDTO> posts = postService.getUserPosts(username, page, size);
+            Page<PostSummaryDTO> posts = postService.getUserPosts(username, page, size);
             
-            return ResponseEntity.ok(ResponseUtil.success("获取用户帖子成功", posts));
+            return ResponseEntity.ok(ResponseUtil.success("获取用户帖子成功", PageResponse.of(posts)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ResponseUtil.error("获取用户帖子失败: " + e.getMessage()));
         }
@@ -114,7 +116,7 @@ public class UserController {
      * 获取用户收藏的帖子
      */
     @GetMapping("/collections")
-    public ResponseEntity<Map<String, Object>> getUserCollections(
+    public ResponseEntity<ApiResponse<?>> getUserCollections(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             Authentication authentication) {
@@ -124,9 +126,9 @@ public class UserController {
             }
             
             String username = authentication.getName();
-            Page<PostDTO> collections = postService.getUserCollections(username, page, size);
+            Page<PostSummaryDTO> collections = postService.getUserCollections(username, page, size);
             
-            return ResponseEntity.ok(ResponseUtil.success("获取用户收藏成功", collections));
+            return ResponseEntity.ok(ResponseUtil.success("获取用户收藏成功", PageResponse.of(collections)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ResponseUtil.error("获取用户收藏失败: " + e.getMessage()));
         }
@@ -136,7 +138,7 @@ public class UserController {
      * 获取用户统计信息
      */
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getUserStats(Authentication authentication) {
+    public ResponseEntity<ApiResponse<?>> getUserStats(Authentication authentication) {
         try {
             if (authentication == null || !authentication.isAuthenticated()) {
                 return ResponseEntity.status(401).body(ResponseUtil.unauthorized("未登录"));
@@ -0,0 +1,30 @@
+package com.deerplatform.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+
+/**
+ * 统一响应结构
+ *
+ * 字段与原先的Map响应相同（code、message、success、data），前端无需修改；
+ * 没有数据时不输出data字段。
+ */
+@Getter
+@JsonPropertyOrder({"code", "message", "success", "data"})
+public class ApiResponse<T> {
+
+    private final int code;
+    private final String message;
+    private final boolean success;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final T data;
+
+    public ApiResponse(int code, String message, boolean success, T data) {
+        this.code = code;
+        this.message = message;
+        this.success = success;
+        this.data = data;
+    }
+}
@@ -0,0 +1,50 @@
+package com.deerplatform.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * 精简的分页结果
+ *
+ * 只保留前端使用的字段（content、number、size、first、last及总数），
+ * 不再序列化Spring Page中的pageable、sort等对象；Slice没有总数，不输出totalElements和totalPages。
+ */
+@Getter
+@JsonPropertyOrder({"content", "number", "size", "first", "last", "totalElements", "totalPages"})
+public class PageResponse<T> {
+
+    private final List<T> content;
+    private final int number;
+    private final int size;
+    private final boolean first;
+    private final boolean last;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Long totalElements;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Integer totalPages;
+
+    private PageResponse(Slice<T> slice, Long totalElements, Integer totalPages) {
+        this.content = slice.getContent();
+        this.number = slice.getNumber();
+        this.size = slice.getSize();
+        this.first = slice.isFirst();
+        this.last = slice.isLast();
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+    }
+
+    public static <T> PageResponse<T> of(Slice<T> slice) {
+        if (slice instanceof Page) {
+            Page<T> page = (Page<T>) slice;
+            return new PageResponse<>(page, page.getTotalElements(), page.getTotalPages());
+        }
+        return new PageResponse<>(slice, null, null);
+    }
+}
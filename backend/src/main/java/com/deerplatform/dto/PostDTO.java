@@ -9,7 +9,7 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class PostDTO {
@@ -19,6 +19,7 @@ public class PostDTO {
     private String summary;
     private Integer viewCount;  // 改为Integer
     private Integer likeCount;  // 改为Integer
+    private Integer favoriteCount;
     private Integer commentCount;  // 改为Integer
     private String status;
     private LocalDateTime createdAt;
@@ -31,13 +32,21 @@ public class PostDTO {
     private CategoryDTO category;
     
     public static PostDTO fromEntity(Post post) {
+        return fromEntity(post, post.getContent());
+    }
+    
+    /**
+     * 使用给定的正文（尚未迁移到post_content的旧正文），不访问正文关联
+     */
+    public static PostDTO fromEntity(Post post, String content) {
         return PostDTO.builder()
                 .id(post.getId())
                 .title(post.getTitle())
-                .content(post.getContent())
+                .content(content)
                 .summary(post.getSummary())
                 .viewCount(post.getViewCount())
                 .likeCount(post.getLikeCount())
+                .favoriteCount(post.getFavoriteCount())
                 .commentCount(post.getCommentCount())
                 .status(post.getStatus().name())
                 .createdAt(post.getCreatedAt())
@@ -0,0 +1,15 @@
+package com.deerplatform.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+public class PostStatusBatchRequest {
+    
+    @NotEmpty(message = "帖子ID不能为空")
+    @Size(max = 100, message = "一次最多查询100个帖子")
+    private List<Long> postIds;
+}
@@ -0,0 +1,78 @@
+package com.deerplatform.dto;
+
+import com.deerplatform.entity.Post;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 帖子列表项（不含正文）
+ *
+ * 由仓库层的构造器表达式直接查询，不加载LONGTEXT的content字段，
+ * 列表、搜索、热门、我的帖子、收藏等接口都返回该对象，完整的PostDTO只用于帖子详情。
+ */
+@Data
+@NoArgsConstructor
+public class PostSummaryDTO {
+    private Long id;
+    private String title;
+    private String summary;
+    private String coverImage;
+    private Integer viewCount;
+    private Integer likeCount;
+    private Integer commentCount;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // 搜索命中的正文片段，已转义HTML，命中词用<mark>包裹，仅内存索引搜索时返回
+    private String highlight;
+
+    // 作者信息
+    private AuthorCard author;
+
+    // 分类信息
+    private CategoryCard category;
+
+    /**
+     * 供JPQL构造器表达式使用
+     */
+    public PostSummaryDTO(Long id, String title, String summary, String coverImage,
+                          Integer viewCount, Integer likeCount, Integer commentCount,
+                          Post.Status status, LocalDateTime createdAt, LocalDateTime updatedAt,
+                          Long authorId, String authorUsername, String authorNickname, String authorAvatarUrl,
+                          Long categoryId, String categoryName) {
+        this.id = id;
+        this.title = title;
+        this.summary = summary;
+        this.coverImage = coverImage;
+        this.viewCount = viewCount;
+        this.likeCount = likeCount;
+        this.commentCount = commentCount;
+        this.status = status.name();
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.author = new AuthorCard(authorId, authorUsername, authorNickname, authorAvatarUrl);
+        this.category = new CategoryCard(categoryId, categoryName);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AuthorCard {
+        private Long id;
+        private String username;
+        private String nickname;
+        private String avatarUrl;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryCard {
+        private Long id;
+        private String name;
+    }
+}
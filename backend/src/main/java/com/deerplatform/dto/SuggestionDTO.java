@@ -0,0 +1,17 @@
+package com.deerplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 搜索建议
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    private String text;
+    private String type;  // title：帖子标题，tag：标签
+    private Long postId;  // 标题建议对应的帖子，标签建议为null
+}
@@ -0,0 +1,31 @@
+package com.deerplatform.entity;
+
+import com.deerplatform.service.PostContentCompression;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * 帖子正文压缩存储转换器，由Hibernate通过Spring容器创建
+ */
+@Component
+@Converter
+public class CompressedContentConverter implements AttributeConverter<String, String> {
+
+    private final PostContentCompression postContentCompression;
+
+    public CompressedContentConverter(PostContentCompression postContentCompression) {
+        this.postContentCompression = postContentCompression;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String content) {
+        return postContentCompression.encode(content);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String stored) {
+        return postContentCompression.decode(stored);
+    }
+}
@@ -2,6 +2,7 @@ package com.deerplatform.entity;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -19,9 +20,6 @@ public class Post {
     @Column(nullable = false, length = 100)
     private String title;
     
-    @Column(nullable = false, columnDefinition = "LONGTEXT")
-    private String content;
-    
     @Column(length = 500)
     private String summary;
     
@@ -40,9 +38,16 @@ public class Post {
     @Column(name = "like_count")
     private Integer likeCount = 0;
     
+    @Column(name = "favorite_count")
+    private Integer favoriteCount = 0;
+    
     @Column(name = "comment_count")
     private Integer commentCount = 0;
     
+    // 热度分，由PostHotRanking定时计算
+    @Column(name = "hot_score")
+    private Double hotScore = 0.0;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Status status = Status.PUBLISHED;
@@ -71,6 +76,35 @@ public class Post {
     @JoinColumn(name = "author_id", insertable = false, updatable = false)
     private User author;
     
+    // 正文存放在post_content表，以帖子ID关联；optional = false 才能生成代理，访问正文时再加载
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "id", insertable = false, updatable = false,
+                foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private PostContent body;
+    
+    // 尚未写入post_content的正文（新帖子），由PostService在帖子保存后写入
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String pendingContent;
+    
+    public String getContent() {
+        return body != null ? body.getContent() : pendingContent;
+    }
+    
+    /**
+     * 修改正文，已保存的帖子通过关联的PostContent更新
+     */
+    public void setContent(String content) {
+        if (body != null) {
+            body.setContent(content);
+        } else {
+            pendingContent = content;
+        }
+    }
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,41 @@
+package com.deerplatform.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 帖子正文
+ *
+ * 与posts表1:1拆分存放，posts表只保留计数、状态等窄列，
+ * 计数更新和列表扫描不再带上正文；只有详情和搜索索引读取正文。
+ */
+@Data
+@Entity
+@Table(name = "post_content")
+public class PostContent {
+
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    // 按配置压缩存储，见PostContentCompression
+    @Convert(converter = CompressedContentConverter.class)
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String content;
+
+    // 正文修订号，每次修改加一，同时用于乐观锁
+    @Version
+    @Column(name = "revision")
+    private Integer revision;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,45 @@
+package com.deerplatform.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * 帖子计数分片
+ *
+ * 热点帖子的计数增量分散写入多行，由后台任务合并回posts表，
+ * 只通过JdbcTemplate读写，实体用于生成表结构。
+ */
+@Data
+@Entity
+@Table(name = "post_counter_shards")
+@IdClass(PostCounterShard.Key.class)
+public class PostCounterShard {
+    
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+    
+    @Id
+    @Column(name = "metric", length = 16)
+    private String metric;
+    
+    @Id
+    @Column(name = "shard")
+    private Integer shard;
+    
+    @Column(name = "delta", nullable = false)
+    private Long delta = 0L;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long postId;
+        private String metric;
+        private Integer shard;
+    }
+}
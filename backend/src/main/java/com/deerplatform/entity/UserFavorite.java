@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
 @Data
 @EqualsAndHashCode(callSuper = false)
 @Entity
-@Table(name = "user_favorites")
+@Table(name = "user_favorites", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_post", columnNames = {"user_id", "post_id"})
+})
 public class UserFavorite {
     
     @Id
@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
 @Data
 @EqualsAndHashCode(callSuper = false)
 @Entity
-@Table(name = "user_likes")
+@Table(name = "user_likes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_target", columnNames = {"user_id", "target_id", "target_type"})
+})
 public class UserLike {
     
     @Id
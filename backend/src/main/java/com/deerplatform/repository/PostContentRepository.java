@@ -0,0 +1,18 @@
+package com.deerplatform.repository;
+
+import com.deerplatform.entity.PostContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PostContentRepository extends JpaRepository<PostContent, Long> {
+
+    // 按帖子ID批量读取正文（生成搜索摘要、补全索引）
+    @Query("SELECT c.postId, c.content FROM PostContent c WHERE c.postId IN :postIds")
+    List<Object[]> findContentsByPostIdIn(@Param("postIds") Collection<Long> postIds);
+}
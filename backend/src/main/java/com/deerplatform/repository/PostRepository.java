@@ -1,44 +1,71 @@
 package com.deerplatform.repository;
 
+import com.deerplatform.dto.PostSummaryDTO;
 import com.deerplatform.entity.Category;
 import com.deerplatform.entity.Post;
 import com.deerplatform.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Repository
-public interface PostRepository extends JpaRepository<Post, Long> {
+public interface PostRepository extends JpaRepository<Post, Long>, PostRepositoryCustom {
+    
+    // 分页查询一律通过实体图一次性加载作者和分类，避免逐行懒加载（N+1）
+    
+    // 根据ID查找帖子，同时加载作者、分类和正文（详情）
+    @EntityGraph(attributePaths = {"author", "category", "body"})
+    Optional<Post> findWithAuthorAndCategoryById(Long id);
     
     // 根据状态查找帖子
+    @EntityGraph(attributePaths = {"author", "category"})
     Page<Post> findByStatus(Post.Status status, Pageable pageable);
     
     // 根据分类查找帖子
+    @EntityGraph(attributePaths = {"author", "category"})
     Page<Post> findByCategory(Category category, Pageable pageable);
     
     // 根据分类和状态查找帖子
+    @EntityGraph(attributePaths = {"author", "category"})
     Page<Post> findByCategoryAndStatus(Category category, Post.Status status, Pageable pageable);
     
     // 根据作者查找帖子
+    @EntityGraph(attributePaths = {"author", "category"})
     Page<Post> findByAuthor(User author, Pageable pageable);
     
     // 根据作者和状态查找帖子
+    @EntityGraph(attributePaths = {"author", "category"})
     Page<Post> findByAuthorAndStatus(User author, Post.Status status, Pageable pageable);
     
     // 搜索帖子标题和内容
-    @Query("SELECT p FROM Post p WHERE (p.title LIKE %:keyword% OR p.content LIKE %:keyword%) AND p.status = :status")
+    @EntityGraph(attributePaths = {"author", "category"})
+    @Query(value = "SELECT p FROM Post p LEFT JOIN p.body b " +
+                   "WHERE (p.title LIKE %:keyword% OR b.content LIKE %:keyword%) AND p.status = :status",
+           countQuery = "SELECT COUNT(p) FROM Post p LEFT JOIN p.body b " +
+                        "WHERE (p.title LIKE %:keyword% OR b.content LIKE %:keyword%) AND p.status = :status")
     Page<Post> searchByKeyword(@Param("keyword") String keyword, @Param("status") Post.Status status, Pageable pageable);
     
     // 获取热门帖子（根据浏览量排序）
+    @EntityGraph(attributePaths = {"author", "category"})
     @Query("SELECT p FROM Post p WHERE p.status = :status ORDER BY p.viewCount DESC")
     Page<Post> findPopularPosts(@Param("status") Post.Status status, Pageable pageable);
     
     // 获取最新帖子
+    @EntityGraph(attributePaths = {"author", "category"})
     Page<Post> findByStatusOrderByCreatedAtDesc(Post.Status status, Pageable pageable);
     
     // 统计用户发布的帖子数量
@@ -51,8 +78,181 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     long countByStatus(Post.Status status);
     
     // 搜索帖子（标题或内容包含关键词）
-    Page<Post> findByTitleContainingOrContentContaining(String title, String content, Pageable pageable);
+    @EntityGraph(attributePaths = {"author", "category"})
+    @Query(value = "SELECT p FROM Post p LEFT JOIN p.body b WHERE p.title LIKE %:title% OR b.content LIKE %:content%",
+           countQuery = "SELECT COUNT(p) FROM Post p LEFT JOIN p.body b WHERE p.title LIKE %:title% OR b.content LIKE %:content%")
+    Page<Post> findByTitleContainingOrContentContaining(@Param("title") String title, @Param("content") String content,
+                                                        Pageable pageable);
     
     // 统计指定时间后创建的帖子数量
     long countByCreatedAtAfter(LocalDateTime dateTime);
-}
\ No newline at end of file
+    
+    // 统计作者的帖子数量（不限状态）
+    long countByAuthorId(Long authorId);
+    
+    // 统计分类下指定状态的帖子数量
+    long countByCategoryIdAndStatus(Long categoryId, Post.Status status);
+    
+    // 列表项查询：通过构造器表达式只读取列表需要的列，不加载content
+    String SUMMARY_SELECT = "SELECT new com.deerplatform.dto.PostSummaryDTO(" +
+            "p.id, p.title, p.summary, p.coverImage, p.viewCount, p.likeCount, p.commentCount, " +
+            "p.status, p.createdAt, p.updatedAt, a.id, a.username, a.nickname, a.avatarUrl, c.id, c.name) " +
+            "FROM Post p JOIN p.author a JOIN p.category c ";
+    
+    // 按正文搜索时关联post_content表
+    String CONTENT_JOIN = "LEFT JOIN p.body b ";
+    
+    // 以下Slice查询不执行COUNT(*)，总数由PostCountCache提供
+    
+    // 根据状态查找帖子
+    @Query(SUMMARY_SELECT + "WHERE p.status = :status")
+    Slice<PostSummaryDTO> findSummariesByStatus(@Param("status") Post.Status status, Pageable pageable);
+    
+    // 根据分类和状态查找帖子
+    @Query(SUMMARY_SELECT + "WHERE p.categoryId = :categoryId AND p.status = :status")
+    Slice<PostSummaryDTO> findSummariesByCategoryIdAndStatus(@Param("categoryId") Long categoryId,
+                                                            @Param("status") Post.Status status, Pageable pageable);
+    
+    // 根据作者查找帖子
+    @Query(SUMMARY_SELECT + "WHERE p.authorId = :authorId")
+    Slice<PostSummaryDTO> findSummariesByAuthorId(@Param("authorId") Long authorId, Pageable pageable);
+    
+    // 查找所有帖子
+    @Query(SUMMARY_SELECT)
+    Slice<PostSummaryDTO> findAllSummaries(Pageable pageable);
+    
+    // 获取热门帖子（根据浏览量排序）
+    @Query(SUMMARY_SELECT + "WHERE p.status = :status ORDER BY p.viewCount DESC")
+    Slice<PostSummaryDTO> findPopularSummaries(@Param("status") Post.Status status, Pageable pageable);
+    
+    // 搜索帖子标题和内容
+    @Query(value = SUMMARY_SELECT + CONTENT_JOIN + "WHERE (p.title LIKE %:keyword% OR b.content LIKE %:keyword%) AND p.status = :status",
+           countQuery = "SELECT COUNT(p) FROM Post p " + CONTENT_JOIN +
+                        "WHERE (p.title LIKE %:keyword% OR b.content LIKE %:keyword%) AND p.status = :status")
+    Page<PostSummaryDTO> searchSummariesByKeyword(@Param("keyword") String keyword, @Param("status") Post.Status status, Pageable pageable);
+    
+    // 搜索帖子标题和内容（不统计总数）
+    @Query(SUMMARY_SELECT + CONTENT_JOIN + "WHERE (p.title LIKE %:keyword% OR b.content LIKE %:keyword%) AND p.status = :status")
+    Slice<PostSummaryDTO> searchSummarySliceByKeyword(@Param("keyword") String keyword, @Param("status") Post.Status status, Pageable pageable);
+    
+    // 搜索所有状态的帖子（标题或内容包含关键词）
+    @Query(value = SUMMARY_SELECT + CONTENT_JOIN + "WHERE p.title LIKE %:keyword% OR b.content LIKE %:keyword%",
+           countQuery = "SELECT COUNT(p) FROM Post p " + CONTENT_JOIN + "WHERE p.title LIKE %:keyword% OR b.content LIKE %:keyword%")
+    Page<PostSummaryDTO> searchAllSummariesByKeyword(@Param("keyword") String keyword, Pageable pageable);
+    
+    // 以下搜索只匹配标题和摘要，不读取正文（正文可能已压缩存储）
+    
+    // 搜索指定状态的帖子
+    @Query(value = SUMMARY_SELECT + "WHERE (p.title LIKE %:keyword% OR p.summary LIKE %:keyword%) AND p.status = :status",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE (p.title LIKE %:keyword% OR p.summary LIKE %:keyword%) AND p.status = :status")
+    Page<PostSummaryDTO> searchSummariesByTitleOrSummary(@Param("keyword") String keyword, @Param("status") Post.Status status, Pageable pageable);
+    
+    // 搜索指定状态的帖子（不统计总数）
+    @Query(SUMMARY_SELECT + "WHERE (p.title LIKE %:keyword% OR p.summary LIKE %:keyword%) AND p.status = :status")
+    Slice<PostSummaryDTO> searchSummarySliceByTitleOrSummary(@Param("keyword") String keyword, @Param("status") Post.Status status, Pageable pageable);
+    
+    // 搜索所有状态的帖子
+    @Query(value = SUMMARY_SELECT + "WHERE p.title LIKE %:keyword% OR p.summary LIKE %:keyword%",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.title LIKE %:keyword% OR p.summary LIKE %:keyword%")
+    Page<PostSummaryDTO> searchAllSummariesByTitleOrSummary(@Param("keyword") String keyword, Pageable pageable);
+    
+    // 按ID批量查询列表项（搜索索引命中后回表）
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+    List<PostSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // 按给定ID的顺序返回列表项，不存在的ID被跳过
+    default List<PostSummaryDTO> findSummariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, PostSummaryDTO> byId = new HashMap<>();
+        for (PostSummaryDTO post : findSummariesByIdIn(ids)) {
+            byId.put(post.getId(), post);
+        }
+        List<PostSummaryDTO> posts = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            PostSummaryDTO post = byId.get(id);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+    
+    // 按ID顺序分批读取搜索建议需要的字段
+    @Query("SELECT p.id, p.title, p.tags, p.viewCount, p.likeCount FROM Post p " +
+           "WHERE p.status = :status AND p.id > :afterId ORDER BY p.id")
+    List<Object[]> findSuggestBatch(@Param("status") Post.Status status, @Param("afterId") Long afterId, Pageable pageable);
+    
+    // 按ID顺序分批读取计算热度需要的字段
+    @Query("SELECT p.id, p.categoryId, p.viewCount, p.likeCount, p.commentCount, p.createdAt, p.favoriteCount FROM Post p " +
+           "WHERE p.status = :status AND p.id > :afterId ORDER BY p.id")
+    List<Object[]> findHotStatsBatch(@Param("status") Post.Status status, @Param("afterId") Long afterId, Pageable pageable);
+    
+    // 按已保存的热度分排序（重启后恢复热度排行）
+    @Query("SELECT p.id, p.categoryId, p.hotScore FROM Post p WHERE p.status = :status ORDER BY p.hotScore DESC, p.id DESC")
+    List<Object[]> findIdsOrderByHotScore(@Param("status") Post.Status status);
+    
+    // 读取帖子的热度分（生成热门游标）
+    @Query("SELECT p.hotScore FROM Post p WHERE p.id = :id")
+    Double findHotScoreById(@Param("id") Long id);
+    
+    // 原子调整点赞数，不经过读-改-写，计数不会减到负数
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = p.likeCount + :delta WHERE p.id = :id AND p.likeCount + :delta >= 0")
+    int adjustLikeCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    // 原子调整收藏数
+    @Modifying
+    @Query("UPDATE Post p SET p.favoriteCount = p.favoriteCount + :delta WHERE p.id = :id AND p.favoriteCount + :delta >= 0")
+    int adjustFavoriteCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    // 批量读取点赞数和收藏数（批量获取帖子状态）
+    @Query("SELECT p.id, p.likeCount, p.favoriteCount FROM Post p WHERE p.id IN :ids")
+    List<Object[]> findCountsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // 按ID顺序分批读取收藏数及实际收藏记录数（修正收藏数偏差）
+    @Query("SELECT p.id, p.favoriteCount, (SELECT COUNT(uf) FROM UserFavorite uf WHERE uf.postId = p.id) " +
+           "FROM Post p WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findFavoriteCountBatch(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // 批量读取分类和浏览量（浏览量写回后判断能否上榜）
+    @Query("SELECT p.id, p.categoryId, p.viewCount FROM Post p WHERE p.id IN :ids AND p.status = :status")
+    List<Object[]> findViewStatesByIdIn(@Param("ids") Collection<Long> ids, @Param("status") Post.Status status);
+    
+    // 读取分类和点赞数（点赞变化后更新排行）
+    @Query("SELECT p.categoryId, p.likeCount FROM Post p WHERE p.id = :id")
+    List<Object[]> findLikeStateById(@Param("id") Long id);
+    
+    // 全文检索（MySQL ngram全文索引，标题和正文分表各建索引），按相关度之和排序；
+    // 标题和正文分别匹配、各自走全文索引，再按帖子ID合并（跨表的OR无法使用全文索引）
+    @Query(value = "SELECT m.post_id FROM (" +
+                   "SELECT p.id AS post_id, MATCH(p.title) AGAINST (:keyword IN NATURAL LANGUAGE MODE) AS score " +
+                   "FROM posts p WHERE MATCH(p.title) AGAINST (:keyword IN NATURAL LANGUAGE MODE) AND p.status = 'PUBLISHED' " +
+                   "UNION ALL " +
+                   "SELECT pc.post_id, MATCH(pc.content) AGAINST (:keyword IN NATURAL LANGUAGE MODE) " +
+                   "FROM post_content pc JOIN posts p ON p.id = pc.post_id " +
+                   "WHERE MATCH(pc.content) AGAINST (:keyword IN NATURAL LANGUAGE MODE) AND p.status = 'PUBLISHED'" +
+                   ") m GROUP BY m.post_id ORDER BY SUM(m.score) DESC, m.post_id DESC " +
+                   "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Number> searchIdsByFulltext(@Param("keyword") String keyword, @Param("offset") long offset, @Param("limit") int limit);
+    
+    // 全文检索命中总数（标题或正文命中的帖子去重）
+    @Query(value = "SELECT COUNT(*) FROM (" +
+                   "SELECT p.id FROM posts p " +
+                   "WHERE MATCH(p.title) AGAINST (:keyword IN NATURAL LANGUAGE MODE) AND p.status = 'PUBLISHED' " +
+                   "UNION " +
+                   "SELECT pc.post_id FROM post_content pc JOIN posts p ON p.id = pc.post_id " +
+                   "WHERE MATCH(pc.content) AGAINST (:keyword IN NATURAL LANGUAGE MODE) AND p.status = 'PUBLISHED'" +
+                   ") m", nativeQuery = true)
+    Number countByFulltext(@Param("keyword") String keyword);
+    
+    // 按ID顺序分批读取索引需要的字段（不限状态）
+    @Query("SELECT p.id, p.title, b.content, p.status FROM Post p LEFT JOIN p.body b " +
+           "WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findIndexBatch(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // 按ID读取索引需要的字段（重建期间发生变化的帖子）
+    @Query("SELECT p.id, p.title, b.content, p.status FROM Post p LEFT JOIN p.body b WHERE p.id IN :ids")
+    List<Object[]> findIndexRowsByIdIn(@Param("ids") Collection<Long> ids);
+}
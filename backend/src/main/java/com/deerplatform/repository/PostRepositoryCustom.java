@@ -0,0 +1,18 @@
+package com.deerplatform.repository;
+
+import com.deerplatform.dto.PostSummaryDTO;
+import com.deerplatform.entity.Post;
+
+import java.util.List;
+
+public interface PostRepositoryCustom {
+    
+    /**
+     * 游标（seek）分页查询
+     *
+     * 按 (sortProperty, id) 排序，从上一页最后一条记录之后开始读取，
+     * lastValue 和 lastId 为空时读取第一页。
+     */
+    List<PostSummaryDTO> findSummariesBySeek(Post.Status status, Long categoryId, String sortProperty, boolean ascending,
+                                             Comparable<?> lastValue, Long lastId, int limit);
+}
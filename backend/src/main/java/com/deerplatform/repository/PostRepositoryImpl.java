@@ -0,0 +1,68 @@
+package com.deerplatform.repository;
+
+import com.deerplatform.dto.PostSummaryDTO;
+import com.deerplatform.entity.Category;
+import com.deerplatform.entity.Post;
+import com.deerplatform.entity.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PostRepositoryImpl implements PostRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<PostSummaryDTO> findSummariesBySeek(Post.Status status, Long categoryId, String sortProperty,
+                                                    boolean ascending, Comparable<?> lastValue, Long lastId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PostSummaryDTO> query = cb.createQuery(PostSummaryDTO.class);
+        Root<Post> root = query.from(Post.class);
+        Join<Post, User> author = root.join("author");
+        Join<Post, Category> category = root.join("category");
+        
+        Expression sortPath = root.get(sortProperty);
+        Path<Long> idPath = root.get("id");
+        
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("status"), status));
+        if (categoryId != null) {
+            predicates.add(cb.equal(root.get("categoryId"), categoryId));
+        }
+        if (lastValue != null && lastId != null) {
+            // (sort, id) > (lastValue, lastId)，降序时方向相反
+            Comparable value = lastValue;
+            Predicate beyondValue = ascending ? cb.greaterThan(sortPath, value) : cb.lessThan(sortPath, value);
+            Predicate beyondId = ascending ? cb.greaterThan(idPath, lastId) : cb.lessThan(idPath, lastId);
+            predicates.add(cb.or(beyondValue, cb.and(cb.equal(sortPath, value), beyondId)));
+        }
+        
+        // 与PostRepository.SUMMARY_SELECT相同的列，不加载content
+        query.select(cb.construct(PostSummaryDTO.class,
+                        root.get("id"), root.get("title"), root.get("summary"), root.get("coverImage"),
+                        root.get("viewCount"), root.get("likeCount"), root.get("commentCount"),
+                        root.get("status"), root.get("createdAt"), root.get("updatedAt"),
+                        author.get("id"), author.get("username"), author.get("nickname"), author.get("avatarUrl"),
+                        category.get("id"), category.get("name")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(ascending
+                        ? new Order[]{cb.asc(sortPath), cb.asc(idPath)}
+                        : new Order[]{cb.desc(sortPath), cb.desc(idPath)});
+        
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
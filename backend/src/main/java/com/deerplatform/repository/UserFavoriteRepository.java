@@ -1,13 +1,18 @@
 package com.deerplatform.repository;
 
+import com.deerplatform.dto.PostSummaryDTO;
 import com.deerplatform.entity.UserFavorite;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,17 +24,50 @@ public interface UserFavoriteRepository extends JpaRepository<UserFavorite, Long
     // 检查用户是否已收藏某个帖子
     boolean existsByUserIdAndPostId(Long userId, Long postId);
     
-    // 获取用户收藏的帖子列表
-    @Query(value = "SELECT uf FROM UserFavorite uf JOIN FETCH uf.post p WHERE uf.userId = :userId ORDER BY uf.createdAt DESC",
+    // 获取用户收藏的帖子列表（同时加载帖子的作者和分类）
+    @EntityGraph(attributePaths = {"post", "post.author", "post.category"})
+    @Query(value = "SELECT uf FROM UserFavorite uf WHERE uf.userId = :userId ORDER BY uf.createdAt DESC",
            countQuery = "SELECT COUNT(uf) FROM UserFavorite uf WHERE uf.userId = :userId")
     Page<UserFavorite> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId, Pageable pageable);
     
+    // 获取用户收藏的帖子列表项（不加载帖子正文）
+    @Query(value = "SELECT new com.deerplatform.dto.PostSummaryDTO(" +
+                   "p.id, p.title, p.summary, p.coverImage, p.viewCount, p.likeCount, p.commentCount, " +
+                   "p.status, p.createdAt, p.updatedAt, a.id, a.username, a.nickname, a.avatarUrl, c.id, c.name) " +
+                   "FROM UserFavorite uf JOIN uf.post p JOIN p.author a JOIN p.category c " +
+                   "WHERE uf.userId = :userId ORDER BY uf.createdAt DESC",
+           countQuery = "SELECT COUNT(uf) FROM UserFavorite uf WHERE uf.userId = :userId")
+    Page<PostSummaryDTO> findPostSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+    
     // 统计用户收藏数量
     long countByUserId(Long userId);
     
     // 统计帖子被收藏数量
     long countByPostId(Long postId);
     
+    // 用户在给定帖子中已收藏的帖子ID
+    @Query("SELECT uf.postId FROM UserFavorite uf WHERE uf.userId = :userId AND uf.postId IN :postIds")
+    List<Long> findFavoritedPostIds(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
+    
+    // 获取收藏某个帖子的全部用户ID
+    @Query("SELECT uf.userId FROM UserFavorite uf WHERE uf.postId = :postId")
+    List<Long> findUserIdsByPostId(@Param("postId") Long postId);
+    
     // 删除用户对某个帖子的收藏
     void deleteByUserIdAndPostId(Long userId, Long postId);
+    
+    /**
+     * 添加收藏，依赖唯一键uk_user_post忽略重复记录，返回实际插入的行数（0或1）
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_favorites (user_id, post_id, created_at) " +
+                   "VALUES (:userId, :postId, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int insertIgnore(@Param("userId") Long userId, @Param("postId") Long postId);
+    
+    /**
+     * 取消收藏，返回实际删除的行数（0或1）
+     */
+    @Modifying
+    @Query("DELETE FROM UserFavorite uf WHERE uf.userId = :userId AND uf.postId = :postId")
+    int deleteFavorite(@Param("userId") Long userId, @Param("postId") Long postId);
 }
\ No newline at end of file
@@ -2,9 +2,13 @@ package com.deerplatform.repository;
 
 import com.deerplatform.entity.UserLike;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -22,6 +26,34 @@ public interface UserLikeRepository extends JpaRepository<UserLike, Long> {
     // 统计用户点赞数量
     long countByUserId(Long userId);
     
+    // 获取点赞某个目标的全部用户ID
+    @Query("SELECT ul.userId FROM UserLike ul WHERE ul.targetId = :targetId AND ul.targetType = :targetType")
+    List<Long> findUserIdsByTarget(@Param("targetId") Long targetId, @Param("targetType") UserLike.TargetType targetType);
+    
+    // 用户在给定目标中已点赞的目标ID
+    @Query("SELECT ul.targetId FROM UserLike ul WHERE ul.userId = :userId AND ul.targetType = :targetType " +
+           "AND ul.targetId IN :targetIds")
+    List<Long> findLikedTargetIds(@Param("userId") Long userId, @Param("targetIds") Collection<Long> targetIds,
+                                  @Param("targetType") UserLike.TargetType targetType);
+    
     // 删除用户对某个目标的点赞
     void deleteByUserIdAndTargetIdAndTargetType(Long userId, Long targetId, UserLike.TargetType targetType);
+    
+    /**
+     * 添加点赞，依赖唯一键uk_user_target忽略重复记录，返回实际插入的行数（0或1）
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_likes (user_id, target_id, target_type, created_at) " +
+                   "VALUES (:userId, :targetId, :targetType, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int insertIgnore(@Param("userId") Long userId, @Param("targetId") Long targetId,
+                     @Param("targetType") String targetType);
+    
+    /**
+     * 取消点赞，返回实际删除的行数（0或1）
+     */
+    @Modifying
+    @Query("DELETE FROM UserLike ul WHERE ul.userId = :userId AND ul.targetId = :targetId " +
+           "AND ul.targetType = :targetType")
+    int deleteLike(@Param("userId") Long userId, @Param("targetId") Long targetId,
+                   @Param("targetType") UserLike.TargetType targetType);
 }
\ No newline at end of file
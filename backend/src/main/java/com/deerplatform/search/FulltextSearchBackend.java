@@ -0,0 +1,113 @@
+package com.deerplatform.search;
+
+import com.deerplatform.dto.PostSummaryDTO;
+import com.deerplatform.repository.PostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MySQL ngram 全文索引（MATCH ... AGAINST），按相关度排序
+ *
+ * 首次使用时检查数据库是否为MySQL且 posts.title、post_content.content 存在全文索引，
+ * 不满足时（如测试使用的H2）始终返回null，回退到LIKE查询。
+ */
+@Slf4j
+@Component
+public class FulltextSearchBackend implements SearchBackend {
+    
+    private static final String TITLE_INDEX = "ft_title";
+    private static final String CONTENT_INDEX = "ft_content";
+    
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    private volatile Boolean available;
+    
+    public FulltextSearchBackend(PostRepository postRepository, JdbcTemplate jdbcTemplate) {
+        this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public String getName() {
+        return "fulltext";
+    }
+    
+    @Override
+    public Page<PostSummaryDTO> search(String keyword, Pageable pageable) {
+        if (!isAvailable()) {
+            return null;
+        }
+        List<PostSummaryDTO> posts = loadPage(keyword, pageable, pageable.getPageSize());
+        long total = postRepository.countByFulltext(keyword).longValue();
+        return new PageImpl<>(posts, pageable, total);
+    }
+    
+    @Override
+    public Slice<PostSummaryDTO> searchSlice(String keyword, Pageable pageable) {
+        if (!isAvailable()) {
+            return null;
+        }
+        // 多取一条判断是否有下一页
+        List<PostSummaryDTO> posts = loadPage(keyword, pageable, pageable.getPageSize() + 1);
+        boolean hasNext = posts.size() > pageable.getPageSize();
+        if (hasNext) {
+            posts.remove(posts.size() - 1);
+        }
+        return new SliceImpl<>(posts, pageable, hasNext);
+    }
+    
+    private List<PostSummaryDTO> loadPage(String keyword, Pageable pageable, int limit) {
+        List<Long> ids = new ArrayList<>();
+        for (Number id : postRepository.searchIdsByFulltext(keyword, pageable.getOffset(), limit)) {
+            ids.add(id.longValue());
+        }
+        return postRepository.findSummariesInOrder(ids);
+    }
+    
+    private boolean isAvailable() {
+        Boolean result = available;
+        if (result == null) {
+            result = detect();
+            available = result;
+        }
+        return result;
+    }
+    
+    private boolean detect() {
+        try {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if (product == null || !product.toLowerCase().contains("mysql")) {
+                log.warn("全文检索需要MySQL，当前数据库: {}，回退到LIKE查询", product);
+                return false;
+            }
+            return hasIndex("posts", TITLE_INDEX) && hasIndex("post_content", CONTENT_INDEX);
+        } catch (Exception e) {
+            log.warn("检查全文索引失败，回退到LIKE查询: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    private boolean hasIndex(String table, String index) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?",
+                Integer.class, table, index);
+        if (count == null || count == 0) {
+            log.warn("{}表缺少全文索引 {}，回退到LIKE查询", table, index);
+            return false;
+        }
+        return true;
+    }
+}
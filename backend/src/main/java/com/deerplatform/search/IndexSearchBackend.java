@@ -0,0 +1,88 @@
+package com.deerplatform.search;
+
+import com.deerplatform.dto.PostSummaryDTO;
+import com.deerplatform.entity.Post;
+import com.deerplatform.repository.PostContentRepository;
+import com.deerplatform.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内存倒排索引，按BM25相关度排序
+ */
+@Component
+@RequiredArgsConstructor
+public class IndexSearchBackend implements SearchBackend {
+    
+    private final PostSearchIndexer postSearchIndexer;
+    private final PostRepository postRepository;
+    private final PostContentRepository postContentRepository;
+    
+    @Override
+    public String getName() {
+        return "index";
+    }
+    
+    @Override
+    public Page<PostSummaryDTO> search(String keyword, Pageable pageable) {
+        List<Long> hits = postSearchIndexer.search(keyword);
+        if (hits == null) {
+            return null;
+        }
+        return new PageImpl<>(loadPage(keyword, hits, pageable, Post.Status.PUBLISHED), pageable, hits.size());
+    }
+    
+    @Override
+    public Slice<PostSummaryDTO> searchSlice(String keyword, Pageable pageable) {
+        List<Long> hits = postSearchIndexer.search(keyword);
+        if (hits == null) {
+            return null;
+        }
+        boolean hasNext = pageable.getOffset() + pageable.getPageSize() < hits.size();
+        return new SliceImpl<>(loadPage(keyword, hits, pageable, Post.Status.PUBLISHED), pageable, hasNext);
+    }
+    
+    /**
+     * 管理后台搜索指定状态的帖子，status为null时不限状态；索引不可用时返回null
+     */
+    public Page<PostSummaryDTO> search(String keyword, Post.Status status, Pageable pageable) {
+        List<Long> hits = postSearchIndexer.search(keyword, status);
+        if (hits == null) {
+            return null;
+        }
+        return new PageImpl<>(loadPage(keyword, hits, pageable, status), pageable, hits.size());
+    }
+    
+    private List<PostSummaryDTO> loadPage(String keyword, List<Long> hits, Pageable pageable, Post.Status status) {
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+        List<Long> pageIds = hits.subList(from, to);
+        List<PostSummaryDTO> posts = postRepository.findSummariesInOrder(pageIds);
+        // 提交后才更新索引，期间状态已变化的帖子不再返回
+        if (status != null) {
+            posts.removeIf(post -> !status.name().equals(post.getStatus()));
+        }
+        if (posts.isEmpty()) {
+            return posts;
+        }
+        
+        // 只读取当前页的正文，按索引记录的位置截取摘要
+        Map<Long, String> contents = new HashMap<>();
+        for (Object[] row : postContentRepository.findContentsByPostIdIn(pageIds)) {
+            contents.put((Long) row[0], (String) row[1]);
+        }
+        for (PostSummaryDTO post : posts) {
+            post.setHighlight(postSearchIndexer.highlight(post.getId(), keyword, contents.get(post.getId())));
+        }
+        return posts;
+    }
+}
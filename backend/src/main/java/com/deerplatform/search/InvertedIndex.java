@@ -0,0 +1,348 @@
+package com.deerplatform.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存倒排索引，按BM25打分
+ *
+ * 每篇帖子分配一个递增的内部文档序号，更新帖子等于删除旧文档后追加新文档，
+ * 删除只做标记，删除比例过高时（更新和删除都会产生）重写全部倒排列表回收空间。
+ * 已删除文档仍留在倒排列表中，BM25的文档频率在查询时按未删除的文档统计。
+ * 同时记录每篇帖子正文中词元的出现位置（TermOffsets），用于生成搜索摘要。
+ * 每个文档带一个状态值（0~31），查询时按状态掩码过滤，文档频率和平均长度按全部文档统计。
+ * 读写通过读写锁保护，写操作远少于查询。
+ */
+public class InvertedIndex {
+    
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    
+    // 标题中的词频按此倍数计入
+    private static final int TITLE_WEIGHT = 3;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docByPostId = new HashMap<>();
+    private long[] postIds = new long[1024];
+    private int[] docLengths = new int[1024];
+    private byte[] docStatuses = new byte[1024];
+    private TermOffsets[] docOffsets = new TermOffsets[1024];
+    private final BitSet deleted = new BitSet();
+    private int docCount;
+    private int deletedCount;
+    private long totalLength;
+    
+    /**
+     * 添加或替换帖子
+     */
+    public void put(long postId, int status, String title, String content) {
+        if (status < 0 || status > 31) {
+            throw new IllegalArgumentException("状态值超出范围: " + status);
+        }
+        Map<String, int[]> frequencies = new HashMap<>();
+        Map<String, int[]> contentOffsets = new HashMap<>();
+        int titleLength = TextTokenizer.tokenize(title, false,
+                (term, position, offset) -> frequencies.computeIfAbsent(term, t -> new int[1])[0] += TITLE_WEIGHT);
+        int contentLength = TextTokenizer.tokenize(content, true, (term, position, offset) -> {
+            frequencies.computeIfAbsent(term, t -> new int[1])[0]++;
+            int[] offsets = contentOffsets.computeIfAbsent(term, t -> new int[TermOffsets.MAX_PER_TERM + 1]);
+            if (offsets[0] < TermOffsets.MAX_PER_TERM) {
+                offsets[++offsets[0]] = offset;
+            }
+        });
+        int length = titleLength * TITLE_WEIGHT + contentLength;
+        TermOffsets termOffsets = TermOffsets.build(contentOffsets);
+        
+        lock.writeLock().lock();
+        try {
+            removeInternal(postId);
+            compactIfNeeded();
+            
+            int doc = docCount++;
+            ensureCapacity(doc + 1);
+            postIds[doc] = postId;
+            docLengths[doc] = length;
+            docStatuses[doc] = (byte) status;
+            docOffsets[doc] = termOffsets;
+            totalLength += length;
+            docByPostId.put(postId, doc);
+            
+            for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new PostingList()).add(doc, entry.getValue()[0]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 删除帖子
+     */
+    public void remove(long postId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(postId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 清空索引
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docByPostId.clear();
+            deleted.clear();
+            Arrays.fill(docOffsets, 0, docCount, null);
+            docCount = 0;
+            deletedCount = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 状态值对应的掩码位
+     */
+    public static int statusBit(int status) {
+        return 1 << status;
+    }
+    
+    /**
+     * 搜索，返回包含全部查询词且状态在掩码中的帖子ID，按相关度降序
+     */
+    public List<Long> search(String query, int statusMask) {
+        Set<String> terms = new LinkedHashSet<>(TextTokenizer.tokenize(query));
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        lock.readLock().lock();
+        try {
+            int liveDocs = docCount - deletedCount;
+            if (liveDocs == 0) {
+                return new ArrayList<>();
+            }
+            float avgLength = (float) totalLength / liveDocs;
+            
+            // 按文档频率从小到大求交集，候选集只会越来越小
+            List<PostingList> lists = new ArrayList<>();
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    return new ArrayList<>();
+                }
+                lists.add(list);
+            }
+            lists.sort((a, b) -> Integer.compare(a.getDocCount(), b.getDocCount()));
+            
+            int[] docs = null;
+            float[] scores = null;
+            // 当前查询词的词频得分，整个列表扫描完得到文档频率后再乘以idf
+            float[] parts = null;
+            int count = 0;
+            for (PostingList list : lists) {
+                PostingList.Iterator it = list.iterator();
+                
+                if (docs == null) {
+                    docs = new int[list.getDocCount()];
+                    scores = new float[docs.length];
+                    parts = new float[docs.length];
+                    int df = 0;
+                    while (it.next()) {
+                        int doc = it.doc();
+                        if (deleted.get(doc)) {
+                            continue;
+                        }
+                        df++;
+                        if ((statusBit(docStatuses[doc]) & statusMask) != 0) {
+                            docs[count] = doc;
+                            scores[count] = termScore(it.termFrequency(), doc, avgLength);
+                            count++;
+                        }
+                    }
+                    float idf = idf(df, liveDocs);
+                    for (int k = 0; k < count; k++) {
+                        scores[k] *= idf;
+                    }
+                    if (count == 0) {
+                        return new ArrayList<>();
+                    }
+                    continue;
+                }
+                
+                // 两个有序序列归并求交，同时统计未删除的文档数
+                int df = 0;
+                int kept = 0;
+                int i = 0;
+                while (it.next()) {
+                    int doc = it.doc();
+                    if (deleted.get(doc)) {
+                        continue;
+                    }
+                    df++;
+                    while (i < count && docs[i] < doc) {
+                        i++;
+                    }
+                    if (i < count && docs[i] == doc) {
+                        docs[kept] = doc;
+                        scores[kept] = scores[i];
+                        parts[kept] = termScore(it.termFrequency(), doc, avgLength);
+                        kept++;
+                        i++;
+                    }
+                }
+                float idf = idf(df, liveDocs);
+                for (int k = 0; k < kept; k++) {
+                    scores[k] += idf * parts[k];
+                }
+                count = kept;
+                if (count == 0) {
+                    return new ArrayList<>();
+                }
+            }
+            
+            Integer[] hits = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                hits[i] = i;
+            }
+            final float[] finalScores = scores;
+            Arrays.sort(hits, (a, b) -> Float.compare(finalScores[b], finalScores[a]));
+            
+            List<Long> result = new ArrayList<>(count);
+            for (int hit : hits) {
+                result.add(postIds[docs[hit]]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 获取查询词在帖子正文中的出现位置，帖子不在索引中时返回空映射
+     */
+    public Map<String, int[]> getOffsets(long postId, Collection<String> terms) {
+        Map<String, int[]> result = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Integer doc = docByPostId.get(postId);
+            if (doc == null) {
+                return result;
+            }
+            for (String term : terms) {
+                result.put(term, docOffsets[doc].get(term));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 索引统计信息
+     */
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (PostingList list : postings.values()) {
+                bytes += list.getSizeInBytes();
+            }
+            long offsetBytes = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                if (!deleted.get(doc)) {
+                    offsetBytes += docOffsets[doc].getSizeInBytes();
+                }
+            }
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("documents", docCount - deletedCount);
+            stats.put("deletedDocuments", deletedCount);
+            stats.put("terms", postings.size());
+            stats.put("postingBytes", bytes);
+            stats.put("offsetBytes", offsetBytes);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static float idf(int df, int liveDocs) {
+        return (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+    }
+    
+    private float termScore(int tf, int doc, float avgLength) {
+        float norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+        return tf * (K1 + 1) / (tf + norm);
+    }
+    
+    private void removeInternal(long postId) {
+        Integer doc = docByPostId.remove(postId);
+        if (doc != null) {
+            deleted.set(doc);
+            docOffsets[doc] = null;
+            deletedCount++;
+            totalLength -= docLengths[doc];
+        }
+    }
+    
+    private void compactIfNeeded() {
+        if (deletedCount > 64 && deletedCount * 4 > docCount) {
+            compact();
+        }
+    }
+    
+    /**
+     * 丢弃已删除文档，重新编号
+     */
+    private void compact() {
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deleted.get(doc)) {
+                remap[doc] = -1;
+            } else {
+                remap[doc] = next;
+                postIds[next] = postIds[doc];
+                docLengths[next] = docLengths[doc];
+                docStatuses[next] = docStatuses[doc];
+                docOffsets[next] = docOffsets[doc];
+                docByPostId.put(postIds[next], next);
+                next++;
+            }
+        }
+        
+        postings.replaceAll((term, list) -> list.remap(remap));
+        postings.values().removeIf(list -> list.getDocCount() == 0);
+        
+        Arrays.fill(docOffsets, next, docCount, null);
+        docCount = next;
+        deletedCount = 0;
+        deleted.clear();
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity > postIds.length) {
+            int newLength = Math.max(capacity, postIds.length * 2);
+            postIds = Arrays.copyOf(postIds, newLength);
+            docLengths = Arrays.copyOf(docLengths, newLength);
+            docStatuses = Arrays.copyOf(docStatuses, newLength);
+            docOffsets = Arrays.copyOf(docOffsets, newLength);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.deerplatform.search;
+
+import com.deerplatform.dto.PostSummaryDTO;
+import com.deerplatform.entity.Post;
+import com.deerplatform.repository.PostRepository;
+import com.deerplatform.service.PostContentCompression;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * LIKE 模糊查询，按创建时间倒序，任何数据库都可用
+ *
+ * 开启正文压缩存储时（此时搜索后端必为index，本类只作为索引就绪前的回退）只匹配标题和摘要。
+ */
+@Component
+@RequiredArgsConstructor
+public class LikeSearchBackend implements SearchBackend {
+    
+    private final PostRepository postRepository;
+    private final PostContentCompression postContentCompression;
+    
+    @Override
+    public String getName() {
+        return "like";
+    }
+    
+    @Override
+    public Page<PostSummaryDTO> search(String keyword, Pageable pageable) {
+        if (postContentCompression.isEnabled()) {
+            return postRepository.searchSummariesByTitleOrSummary(keyword, Post.Status.PUBLISHED, latestFirst(pageable));
+        }
+        return postRepository.searchSummariesByKeyword(keyword, Post.Status.PUBLISHED, latestFirst(pageable));
+    }
+    
+    @Override
+    public Slice<PostSummaryDTO> searchSlice(String keyword, Pageable pageable) {
+        if (postContentCompression.isEnabled()) {
+            return postRepository.searchSummarySliceByTitleOrSummary(keyword, Post.Status.PUBLISHED, latestFirst(pageable));
+        }
+        return postRepository.searchSummarySliceByKeyword(keyword, Post.Status.PUBLISHED, latestFirst(pageable));
+    }
+    
+    private Pageable latestFirst(Pageable pageable) {
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+}
@@ -0,0 +1,214 @@
+package com.deerplatform.search;
+
+import com.deerplatform.entity.Post;
+import com.deerplatform.repository.PostContentRepository;
+import com.deerplatform.repository.PostRepository;
+import com.deerplatform.service.PostContentSplitMigrator;
+import com.deerplatform.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 帖子全文索引维护
+ *
+ * 启动后在后台线程从数据库重建全部帖子的倒排索引（带状态，前台只查已发布，管理后台可查任意状态），
+ * 之后随帖子的创建、修改、删除和状态变化在事务提交后增量更新。
+ * 索引未就绪时search返回null，由调用方回退到数据库查询。
+ */
+@Slf4j
+@Component
+public class PostSearchIndexer {
+    
+    private final PostRepository postRepository;
+    private final PostContentRepository postContentRepository;
+    private final PostContentSplitMigrator postContentSplitMigrator;
+    private final boolean enabled;
+    private final int batchSize;
+    
+    private volatile InvertedIndex index = new InvertedIndex();
+    private volatile boolean ready;
+    
+    // 重建期间发生变化的帖子，重建完成后重新读取
+    private Set<Long> changedDuringRebuild;
+    
+    public PostSearchIndexer(PostRepository postRepository,
+                             PostContentRepository postContentRepository,
+                             PostContentSplitMigrator postContentSplitMigrator,
+                             @Value("${app.search.backend:index}") String backend,
+                             @Value("${app.search.index.rebuild-batch-size:500}") int batchSize) {
+        this.postRepository = postRepository;
+        this.postContentRepository = postContentRepository;
+        this.postContentSplitMigrator = postContentSplitMigrator;
+        // 只有选用内存索引作为搜索后端时才构建索引
+        this.enabled = "index".equalsIgnoreCase(backend);
+        this.batchSize = batchSize;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::rebuild, "post-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * 从数据库重建索引
+     */
+    public void rebuild() {
+        synchronized (this) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        
+        long start = System.currentTimeMillis();
+        InvertedIndex rebuilt = new InvertedIndex();
+        try {
+            long afterId = 0;
+            while (true) {
+                List<Object[]> rows = postRepository.findIndexBatch(afterId, PageRequest.of(0, batchSize));
+                putBatch(rebuilt, rows);
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            
+            Set<Long> changed;
+            synchronized (this) {
+                changed = changedDuringRebuild;
+                changedDuringRebuild = null;
+                index = rebuilt;
+            }
+            // 切换后的增量更新已直接写入新索引，这里重新读取切换前发生变化的帖子
+            if (!changed.isEmpty()) {
+                List<Object[]> rows = postRepository.findIndexRowsByIdIn(changed);
+                putBatch(rebuilt, rows);
+                for (Object[] row : rows) {
+                    changed.remove((Long) row[0]);
+                }
+                for (Long postId : changed) {
+                    rebuilt.remove(postId);
+                }
+            }
+        } catch (Exception e) {
+            log.error("帖子索引重建失败: {}", e.getMessage(), e);
+            synchronized (this) {
+                changedDuringRebuild = null;
+            }
+            return;
+        }
+        ready = true;
+        
+        log.info("帖子索引重建完成, 耗时: {}ms, {}", System.currentTimeMillis() - start, rebuilt.getStats());
+    }
+    
+    private void putBatch(InvertedIndex target, List<Object[]> rows) {
+        // 正文尚未迁移到post_content的帖子从posts.content读取
+        List<Long> missing = new ArrayList<>();
+        for (Object[] row : rows) {
+            if (row[2] == null) {
+                missing.add((Long) row[0]);
+            }
+        }
+        Map<Long, String> contents = postContentSplitMigrator.findLegacyContents(missing);
+        for (Object[] row : rows) {
+            String content = row[2] != null ? (String) row[2] : contents.get((Long) row[0]);
+            target.put((Long) row[0], ((Post.Status) row[3]).ordinal(), (String) row[1], content);
+        }
+    }
+    
+    /**
+     * 帖子保存后更新索引
+     */
+    public void onPostSaved(Post post) {
+        if (!enabled) {
+            return;
+        }
+        Long postId = post.getId();
+        Post.Status status = post.getStatus();
+        String title = post.getTitle();
+        String content = post.getContent();
+        TransactionUtil.afterCommit(() -> {
+            markChanged(postId);
+            index.put(postId, status.ordinal(), title, content);
+        });
+    }
+    
+    /**
+     * 帖子删除后更新索引
+     */
+    public void onPostRemoved(Long postId) {
+        if (!enabled) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            markChanged(postId);
+            index.remove(postId);
+        });
+    }
+    
+    /**
+     * 搜索已发布帖子，返回按相关度排序的帖子ID；索引不可用时返回null
+     */
+    public List<Long> search(String keyword) {
+        return search(keyword, Post.Status.PUBLISHED);
+    }
+    
+    /**
+     * 搜索指定状态的帖子，status为null时不限状态；索引不可用时返回null
+     */
+    public List<Long> search(String keyword, Post.Status status) {
+        if (!enabled || !ready) {
+            return null;
+        }
+        // 索引只包含双字词，单个汉字的查询交给数据库
+        for (String term : TextTokenizer.tokenize(keyword)) {
+            if (term.codePointCount(0, term.length()) == 1 && TextTokenizer.isCjk(term.codePointAt(0))) {
+                return null;
+            }
+        }
+        int statusMask = 0;
+        for (Post.Status candidate : Post.Status.values()) {
+            if (status == null || candidate == status) {
+                statusMask |= InvertedIndex.statusBit(candidate.ordinal());
+            }
+        }
+        return index.search(keyword, statusMask);
+    }
+    
+    /**
+     * 根据索引记录的位置生成正文摘要，帖子不在索引中或正文没有命中时返回null
+     */
+    public String highlight(Long postId, String keyword, String content) {
+        Set<String> terms = new HashSet<>(TextTokenizer.tokenize(keyword));
+        return SnippetBuilder.build(content, index.getOffsets(postId, terms));
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = index.getStats();
+        stats.put("ready", ready);
+        return stats;
+    }
+    
+    private synchronized void markChanged(Long postId) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(postId);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.deerplatform.search;
+
+import com.deerplatform.entity.Post;
+import com.deerplatform.repository.PostRepository;
+import com.deerplatform.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 搜索建议
+ *
+ * 把已发布帖子的标题和标签放进前缀树，权重为 浏览量 + 点赞数 × LIKE_WEIGHT，
+ * 标签的权重为所有带该标签帖子的权重之和。启动后从数据库重建，
+ * 之后随帖子写操作、浏览量写回和点赞增量更新。
+ */
+@Slf4j
+@Component
+public class PostSuggester {
+    
+    public static final String TYPE_TITLE = "title";
+    public static final String TYPE_TAG = "tag";
+    
+    // 一次点赞相当于多少次浏览
+    private static final int LIKE_WEIGHT = 5;
+    // 只按前若干个字符建立前缀
+    private static final int MAX_KEY_LENGTH = 50;
+    
+    private final PostRepository postRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SuggestTrie trie = new SuggestTrie();
+    private final Map<Long, PostState> posts = new HashMap<>();
+    private final Map<String, TagState> tags = new HashMap<>();
+    
+    // 重建期间已被增量更新的帖子，重建时跳过以免覆盖为旧数据
+    private Set<Long> touchedDuringRebuild;
+    
+    public PostSuggester(PostRepository postRepository,
+                         @Value("${app.search.suggest.enabled:true}") boolean enabled,
+                         @Value("${app.search.index.rebuild-batch-size:500}") int batchSize) {
+        this.postRepository = postRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::rebuild, "post-suggest-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * 从数据库加载全部已发布帖子
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        try {
+            long afterId = 0;
+            while (true) {
+                List<Object[]> rows = postRepository.findSuggestBatch(Post.Status.PUBLISHED, afterId,
+                        PageRequest.of(0, batchSize));
+                lock.writeLock().lock();
+                try {
+                    for (Object[] row : rows) {
+                        Long postId = (Long) row[0];
+                        if (!touchedDuringRebuild.contains(postId)) {
+                            putInternal(postId, (String) row[1], (String) row[2],
+                                    toLong(row[3]), toLong(row[4]));
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            log.info("搜索建议加载完成, 耗时: {}ms, 条目数: {}", System.currentTimeMillis() - start, trie.size());
+        } catch (Exception e) {
+            log.error("搜索建议加载失败: {}", e.getMessage(), e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                touchedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+    
+    /**
+     * 按前缀获取建议，权重高的在前
+     */
+    public List<SuggestTrie.Entry> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (!enabled || key.isEmpty()) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            return trie.suggest(key, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 帖子保存后更新
+     */
+    public void onPostSaved(Post post) {
+        if (!enabled) {
+            return;
+        }
+        Long postId = post.getId();
+        boolean published = post.getStatus() == Post.Status.PUBLISHED;
+        String title = post.getTitle();
+        String tagText = post.getTags();
+        long views = post.getViewCount() != null ? post.getViewCount() : 0;
+        long likes = post.getLikeCount() != null ? post.getLikeCount() : 0;
+        TransactionUtil.afterCommit(() -> write(postId, () -> {
+            removeInternal(postId);
+            if (published) {
+                putInternal(postId, title, tagText, views, likes);
+            }
+        }));
+    }
+    
+    /**
+     * 帖子删除后更新
+     */
+    public void onPostRemoved(Long postId) {
+        if (!enabled) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> write(postId, () -> removeInternal(postId)));
+    }
+    
+    /**
+     * 浏览量写回数据库后调整权重
+     */
+    public void onViewsAdded(Long postId, long delta) {
+        if (enabled) {
+            write(null, () -> adjust(postId, delta, 0));
+        }
+    }
+    
+    /**
+     * 点赞数变化后调整权重
+     */
+    public void onLikesChanged(Long postId, long delta) {
+        if (enabled) {
+            TransactionUtil.afterCommit(() -> write(null, () -> adjust(postId, 0, delta)));
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("posts", posts.size());
+            stats.put("tags", tags.size());
+            stats.put("entries", trie.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void write(Long touchedPostId, Runnable action) {
+        lock.writeLock().lock();
+        try {
+            if (touchedPostId != null && touchedDuringRebuild != null) {
+                touchedDuringRebuild.add(touchedPostId);
+            }
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void putInternal(Long postId, String title, String tagText, long views, long likes) {
+        PostState state = new PostState();
+        state.views = views;
+        state.likes = likes;
+        long weight = state.weight();
+        
+        String titleKey = normalize(title);
+        if (!titleKey.isEmpty()) {
+            state.titleKey = titleKey;
+            state.titleEntry = new SuggestTrie.Entry(title.trim(), TYPE_TITLE, postId, weight);
+            trie.add(titleKey, state.titleEntry);
+        }
+        
+        state.tagKeys = splitTags(tagText);
+        for (String tagKey : state.tagKeys) {
+            TagState tag = tags.get(tagKey);
+            if (tag == null) {
+                tag = new TagState();
+                tag.entry = new SuggestTrie.Entry(tagKey, TYPE_TAG, null, weight + 1);
+                trie.add(tagKey, tag.entry);
+                tags.put(tagKey, tag);
+            } else {
+                trie.updateWeight(tagKey, tag.entry, tag.entry.getWeight() + weight + 1);
+            }
+            tag.postCount++;
+        }
+        posts.put(postId, state);
+    }
+    
+    private void removeInternal(Long postId) {
+        PostState state = posts.remove(postId);
+        if (state == null) {
+            return;
+        }
+        if (state.titleEntry != null) {
+            trie.remove(state.titleKey, state.titleEntry);
+        }
+        long weight = state.weight();
+        for (String tagKey : state.tagKeys) {
+            TagState tag = tags.get(tagKey);
+            if (--tag.postCount == 0) {
+                trie.remove(tagKey, tag.entry);
+                tags.remove(tagKey);
+            } else {
+                trie.updateWeight(tagKey, tag.entry, tag.entry.getWeight() - weight - 1);
+            }
+        }
+    }
+    
+    private void adjust(Long postId, long viewDelta, long likeDelta) {
+        PostState state = posts.get(postId);
+        if (state == null) {
+            return;
+        }
+        long before = state.weight();
+        state.views += viewDelta;
+        state.likes = Math.max(0, state.likes + likeDelta);
+        long change = state.weight() - before;
+        if (change == 0) {
+            return;
+        }
+        if (state.titleEntry != null) {
+            trie.updateWeight(state.titleKey, state.titleEntry, state.titleEntry.getWeight() + change);
+        }
+        for (String tagKey : state.tagKeys) {
+            TagState tag = tags.get(tagKey);
+            trie.updateWeight(tagKey, tag.entry, tag.entry.getWeight() + change);
+        }
+    }
+    
+    private static List<String> splitTags(String tagText) {
+        List<String> result = new ArrayList<>();
+        if (tagText == null) {
+            return result;
+        }
+        Set<String> unique = new LinkedHashSet<>();
+        for (String tag : tagText.split("[,，]")) {
+            String key = normalize(tag);
+            if (!key.isEmpty()) {
+                unique.add(key);
+            }
+        }
+        result.addAll(unique);
+        return result;
+    }
+    
+    /**
+     * 统一小写、合并空白并截断
+     */
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String key = text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+    
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+    
+    private static class PostState {
+        String titleKey;
+        SuggestTrie.Entry titleEntry;
+        List<String> tagKeys;
+        long views;
+        long likes;
+        
+        long weight() {
+            return views + likes * LIKE_WEIGHT;
+        }
+    }
+    
+    private static class TagState {
+        SuggestTrie.Entry entry;
+        int postCount;
+    }
+}
@@ -0,0 +1,116 @@
+package com.deerplatform.search;
+
+import java.util.Arrays;
+
+/**
+ * 倒排列表
+ *
+ * 按文档序号递增顺序存储 (文档序号差值, 词频)，两者都用变长整数编码到字节数组中。
+ * 新文档的序号总是最大的，因此只需追加。
+ */
+public class PostingList {
+    
+    private byte[] data = new byte[8];
+    private int size;
+    private int lastDoc = -1;
+    private int docCount;
+    
+    /**
+     * 追加一条记录，doc必须大于已有的文档序号
+     */
+    public void add(int doc, int termFrequency) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("文档序号必须递增: " + doc);
+        }
+        writeVarInt(doc - lastDoc);
+        writeVarInt(termFrequency);
+        lastDoc = doc;
+        docCount++;
+    }
+    
+    /**
+     * 包含的文档数（含已删除文档）
+     */
+    public int getDocCount() {
+        return docCount;
+    }
+    
+    public int getSizeInBytes() {
+        return size;
+    }
+    
+    public Iterator iterator() {
+        return new Iterator();
+    }
+    
+    /**
+     * 按新的文档序号重写，remap中为-1的文档被丢弃
+     */
+    public PostingList remap(int[] remap) {
+        PostingList result = new PostingList();
+        Iterator it = iterator();
+        while (it.next()) {
+            int doc = remap[it.doc()];
+            if (doc >= 0) {
+                result.add(doc, it.termFrequency());
+            }
+        }
+        result.trim();
+        return result;
+    }
+    
+    public void trim() {
+        if (data.length > size) {
+            data = Arrays.copyOf(data, Math.max(size, 1));
+        }
+    }
+    
+    private void writeVarInt(int value) {
+        if (size + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, size + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            data[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[size++] = (byte) value;
+    }
+    
+    /**
+     * 顺序解码器
+     */
+    public class Iterator {
+        private int offset;
+        private int doc = -1;
+        private int termFrequency;
+        
+        public boolean next() {
+            if (offset >= size) {
+                return false;
+            }
+            doc += readVarInt();
+            termFrequency = readVarInt();
+            return true;
+        }
+        
+        public int doc() {
+            return doc;
+        }
+        
+        public int termFrequency() {
+            return termFrequency;
+        }
+        
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
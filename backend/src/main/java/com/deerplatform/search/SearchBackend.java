@@ -0,0 +1,30 @@
+package com.deerplatform.search;
+
+import com.deerplatform.dto.PostSummaryDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * 帖子搜索后端
+ *
+ * 只搜索已发布的帖子。无法处理某个查询时（索引未就绪、数据库不支持等）返回null，
+ * 由 SearchBackendRouter 回退到LIKE查询。
+ */
+public interface SearchBackend {
+    
+    /**
+     * 后端名称，与配置项 app.search.backend 对应
+     */
+    String getName();
+    
+    /**
+     * 搜索并统计总数
+     */
+    Page<PostSummaryDTO> search(String keyword, Pageable pageable);
+    
+    /**
+     * 搜索但不统计总数
+     */
+    Slice<PostSummaryDTO> searchSlice(String keyword, Pageable pageable);
+}
@@ -0,0 +1,47 @@
+package com.deerplatform.search;
+
+import com.deerplatform.dto.PostSummaryDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 按配置项 app.search.backend 选择搜索后端（index / fulltext / like），
+ * 所选后端无法处理时回退到LIKE查询。
+ */
+@Slf4j
+@Component
+public class SearchBackendRouter {
+    
+    private final SearchBackend backend;
+    private final LikeSearchBackend fallback;
+    
+    public SearchBackendRouter(List<SearchBackend> backends, LikeSearchBackend fallback,
+                               @Value("${app.search.backend:index}") String name) {
+        this.backend = backends.stream()
+                .filter(candidate -> candidate.getName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("未知的搜索后端: " + name));
+        this.fallback = fallback;
+        log.info("帖子搜索后端: {}", backend.getName());
+    }
+    
+    public Page<PostSummaryDTO> search(String keyword, Pageable pageable) {
+        Page<PostSummaryDTO> result = backend.search(keyword, pageable);
+        return result != null ? result : fallback.search(keyword, pageable);
+    }
+    
+    public Slice<PostSummaryDTO> searchSlice(String keyword, Pageable pageable) {
+        Slice<PostSummaryDTO> result = backend.searchSlice(keyword, pageable);
+        return result != null ? result : fallback.searchSlice(keyword, pageable);
+    }
+    
+    public String getBackendName() {
+        return backend.getName();
+    }
+}
@@ -0,0 +1,234 @@
+package com.deerplatform.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 搜索结果摘要
+ *
+ * 根据索引记录的词元位置选出命中最集中的窗口，只处理窗口附近的原文：
+ * 跳过HTML标签、解码常见实体、合并空白、转义HTML，命中词用 &lt;mark&gt; 包裹。
+ */
+public class SnippetBuilder {
+    
+    public static final String MARK_OPEN = "<mark>";
+    public static final String MARK_CLOSE = "</mark>";
+    
+    // 摘要最多包含的可见字符数
+    private static final int MAX_LENGTH = 120;
+    // 窗口内命中词之间允许的最大原文跨度
+    private static final int WINDOW_SPAN = 80;
+    // 第一个命中词之前保留的原文长度
+    private static final int LEADING_CONTEXT = 20;
+    
+    private static final Map<String, String> ENTITIES = new HashMap<>();
+    
+    static {
+        ENTITIES.put("nbsp", " ");
+        ENTITIES.put("lt", "<");
+        ENTITIES.put("gt", ">");
+        ENTITIES.put("amp", "&");
+        ENTITIES.put("quot", "\"");
+        ENTITIES.put("apos", "'");
+    }
+    
+    /**
+     * 生成摘要，offsets为各查询词在正文中的出现位置；没有可用命中时返回null
+     */
+    public static String build(String content, Map<String, int[]> offsets) {
+        if (content == null || offsets.isEmpty()) {
+            return null;
+        }
+        
+        List<int[]> hits = collectHits(content, offsets);
+        if (hits.isEmpty()) {
+            return null;
+        }
+        int start = chooseStart(content, hits);
+        return render(content, start, hits);
+    }
+    
+    /**
+     * 核对原文后得到命中区间 {起始, 结束, 查询词序号}，按起始位置排序
+     */
+    private static List<int[]> collectHits(String content, Map<String, int[]> offsets) {
+        List<int[]> hits = new ArrayList<>();
+        int termIndex = 0;
+        for (Map.Entry<String, int[]> entry : offsets.entrySet()) {
+            String term = entry.getKey();
+            for (int offset : entry.getValue()) {
+                // 位置来自哈希表，可能属于其他词元或旧版本正文
+                if (offset + term.length() <= content.length()
+                        && content.regionMatches(true, offset, term, 0, term.length())) {
+                    hits.add(new int[]{offset, offset + term.length(), termIndex});
+                }
+            }
+            termIndex++;
+        }
+        hits.sort((a, b) -> Integer.compare(a[0], b[0]));
+        return hits;
+    }
+    
+    /**
+     * 滑动窗口，优先包含不同查询词最多、其次命中次数最多的区间
+     */
+    private static int chooseStart(String content, List<int[]> hits) {
+        int termCount = 0;
+        for (int[] hit : hits) {
+            termCount = Math.max(termCount, hit[2] + 1);
+        }
+        int[] inWindow = new int[termCount];
+        int distinct = 0;
+        int bestScore = -1;
+        int bestFirst = 0;
+        
+        int first = 0;
+        for (int last = 0; last < hits.size(); last++) {
+            if (inWindow[hits.get(last)[2]]++ == 0) {
+                distinct++;
+            }
+            while (hits.get(last)[0] - hits.get(first)[0] > WINDOW_SPAN) {
+                if (--inWindow[hits.get(first)[2]] == 0) {
+                    distinct--;
+                }
+                first++;
+            }
+            int score = distinct * 1000 + (last - first + 1);
+            if (score > bestScore) {
+                bestScore = score;
+                bestFirst = first;
+            }
+        }
+        
+        int anchor = hits.get(bestFirst)[0];
+        int start = Math.max(0, anchor - LEADING_CONTEXT);
+        // 起点不能落在标签、实体或代理对中间
+        for (int i = start; i < anchor; i++) {
+            char c = content.charAt(i);
+            if (c == '<' || c == '&') {
+                break;
+            }
+            if (c == '>' || c == ';') {
+                start = i + 1;
+            }
+        }
+        if (start > 0 && start < content.length() && Character.isLowSurrogate(content.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+    
+    private static String render(String content, int start, List<int[]> hits) {
+        StringBuilder out = new StringBuilder(MAX_LENGTH * 2);
+        if (start > 0) {
+            out.append("...");
+        }
+        
+        int hitIndex = 0;
+        while (hitIndex < hits.size() && hits.get(hitIndex)[0] < start) {
+            hitIndex++;
+        }
+        int markEnd = -1;
+        int visible = 0;
+        boolean lastSpace = true;
+        int length = content.length();
+        int i = start;
+        
+        while (i < length && visible < MAX_LENGTH) {
+            if (markEnd >= 0 && i >= markEnd) {
+                out.append(MARK_CLOSE);
+                markEnd = -1;
+            }
+            while (hitIndex < hits.size() && hits.get(hitIndex)[0] <= i) {
+                if (hits.get(hitIndex)[0] == i || markEnd >= 0) {
+                    if (markEnd < 0) {
+                        out.append(MARK_OPEN);
+                    }
+                    markEnd = Math.max(markEnd, hits.get(hitIndex)[1]);
+                }
+                hitIndex++;
+            }
+            
+            char c = content.charAt(i);
+            if (c == '<') {
+                int end = content.indexOf('>', i + 1);
+                if (end >= 0) {
+                    i = end + 1;
+                    lastSpace = appendSpace(out, lastSpace);
+                    continue;
+                }
+            } else if (c == '&') {
+                int end = content.indexOf(';', i + 1);
+                if (end > i + 1 && end - i <= 10) {
+                    String decoded = decodeEntity(content.substring(i + 1, end));
+                    if (decoded != null) {
+                        if (decoded.trim().isEmpty()) {
+                            lastSpace = appendSpace(out, lastSpace);
+                        } else {
+                            appendEscaped(out, decoded);
+                            lastSpace = false;
+                            visible++;
+                        }
+                        i = end + 1;
+                        continue;
+                    }
+                }
+            }
+            
+            int cp = content.codePointAt(i);
+            if (Character.isWhitespace(cp)) {
+                lastSpace = appendSpace(out, lastSpace);
+            } else {
+                appendEscaped(out, new String(Character.toChars(cp)));
+                lastSpace = false;
+                visible++;
+            }
+            i += Character.charCount(cp);
+        }
+        
+        if (markEnd >= 0) {
+            out.append(MARK_CLOSE);
+        }
+        if (i < length) {
+            out.append("...");
+        }
+        return out.toString().trim();
+    }
+    
+    private static boolean appendSpace(StringBuilder out, boolean lastSpace) {
+        if (!lastSpace) {
+            out.append(' ');
+        }
+        return true;
+    }
+    
+    private static void appendEscaped(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': out.append("&lt;"); break;
+                case '>': out.append("&gt;"); break;
+                case '&': out.append("&amp;"); break;
+                case '"': out.append("&quot;"); break;
+                case '\'': out.append("&#39;"); break;
+                default: out.append(c);
+            }
+        }
+    }
+    
+    private static String decodeEntity(String name) {
+        if (name.startsWith("#")) {
+            try {
+                int cp = name.startsWith("#x") || name.startsWith("#X")
+                        ? Integer.parseInt(name.substring(2), 16)
+                        : Integer.parseInt(name.substring(1));
+                return Character.isValidCodePoint(cp) ? new String(Character.toChars(cp)) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return ENTITIES.get(name);
+    }
+}
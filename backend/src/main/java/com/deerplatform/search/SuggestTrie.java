@@ -0,0 +1,242 @@
+package com.deerplatform.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 带权重的前缀树，用于搜索建议
+ *
+ * 子节点按字符排序存放在数组中，每个节点记录子树内的最大权重，
+ * 查询时按最大权重优先展开，取到足够条数即停止，不遍历整个子树。
+ * 非线程安全，由调用方加锁。
+ */
+public class SuggestTrie {
+    
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    
+    /**
+     * 建议条目
+     */
+    public static class Entry {
+        private final String text;
+        private final String type;
+        private final Long postId;
+        private long weight;
+        
+        public Entry(String text, String type, Long postId, long weight) {
+            this.text = text;
+            this.type = type;
+            this.postId = postId;
+            this.weight = weight;
+        }
+        
+        public String getText() {
+            return text;
+        }
+        
+        public String getType() {
+            return type;
+        }
+        
+        public Long getPostId() {
+            return postId;
+        }
+        
+        public long getWeight() {
+            return weight;
+        }
+    }
+    
+    private static class Node {
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        List<Entry> entries;
+        long maxWeight = Long.MIN_VALUE;
+    }
+    
+    private final Node root = new Node();
+    private int size;
+    
+    /**
+     * 添加条目
+     */
+    public void add(String key, Entry entry) {
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < key.length(); i++) {
+            node = child(node, key.charAt(i), true);
+            path[i + 1] = node;
+        }
+        if (node.entries == null) {
+            node.entries = new ArrayList<>(1);
+        }
+        node.entries.add(entry);
+        size++;
+        for (Node n : path) {
+            n.maxWeight = Math.max(n.maxWeight, entry.weight);
+        }
+    }
+    
+    /**
+     * 删除条目（按引用匹配），不存在时忽略
+     */
+    public void remove(String key, Entry entry) {
+        Node[] path = find(key);
+        if (path == null) {
+            return;
+        }
+        Node node = path[key.length()];
+        if (node.entries == null || !node.entries.remove(entry)) {
+            return;
+        }
+        if (node.entries.isEmpty()) {
+            node.entries = null;
+        }
+        size--;
+        refresh(key, path);
+    }
+    
+    /**
+     * 调整条目权重
+     */
+    public void updateWeight(String key, Entry entry, long weight) {
+        long old = entry.weight;
+        entry.weight = weight;
+        Node[] path = find(key);
+        if (path == null) {
+            return;
+        }
+        if (weight >= old) {
+            for (Node n : path) {
+                n.maxWeight = Math.max(n.maxWeight, weight);
+            }
+        } else {
+            refresh(key, path);
+        }
+    }
+    
+    /**
+     * 按权重从高到低返回以prefix开头的条目
+     */
+    public List<Entry> suggest(String prefix, int limit) {
+        List<Entry> result = new ArrayList<>(limit);
+        Node[] path = find(prefix);
+        if (path == null) {
+            return result;
+        }
+        
+        // 队列中既有节点（以子树最大权重排序）也有条目（以自身权重排序）
+        PriorityQueue<Object> queue = new PriorityQueue<>(
+                (a, b) -> Long.compare(priority(b), priority(a)));
+        queue.add(path[prefix.length()]);
+        while (!queue.isEmpty() && result.size() < limit) {
+            Object next = queue.poll();
+            if (next instanceof Entry) {
+                result.add((Entry) next);
+                continue;
+            }
+            Node node = (Node) next;
+            if (node.entries != null) {
+                queue.addAll(node.entries);
+            }
+            for (Node child : node.children) {
+                queue.add(child);
+            }
+        }
+        return result;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    private static long priority(Object item) {
+        return item instanceof Entry ? ((Entry) item).weight : ((Node) item).maxWeight;
+    }
+    
+    private Node[] find(String key) {
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < key.length(); i++) {
+            node = child(node, key.charAt(i), false);
+            if (node == null) {
+                return null;
+            }
+            path[i + 1] = node;
+        }
+        return path;
+    }
+    
+    /**
+     * 自底向上重新计算最大权重，并剪掉空节点
+     */
+    private void refresh(String key, Node[] path) {
+        for (int depth = key.length(); depth >= 0; depth--) {
+            Node node = path[depth];
+            long max = Long.MIN_VALUE;
+            if (node.entries != null) {
+                for (Entry e : node.entries) {
+                    max = Math.max(max, e.weight);
+                }
+            }
+            for (Node child : node.children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            node.maxWeight = max;
+            
+            if (depth > 0 && node.entries == null && node.children.length == 0) {
+                removeChild(path[depth - 1], key.charAt(depth - 1));
+            }
+        }
+    }
+    
+    private static Node child(Node node, char c, boolean create) {
+        int index = Arrays.binarySearch(node.keys, c);
+        if (index >= 0) {
+            return node.children[index];
+        }
+        if (!create) {
+            return null;
+        }
+        int insert = -index - 1;
+        int length = node.keys.length;
+        char[] keys = new char[length + 1];
+        Node[] children = new Node[length + 1];
+        System.arraycopy(node.keys, 0, keys, 0, insert);
+        System.arraycopy(node.children, 0, children, 0, insert);
+        System.arraycopy(node.keys, insert, keys, insert + 1, length - insert);
+        System.arraycopy(node.children, insert, children, insert + 1, length - insert);
+        Node created = new Node();
+        keys[insert] = c;
+        children[insert] = created;
+        node.keys = keys;
+        node.children = children;
+        return created;
+    }
+    
+    private static void removeChild(Node node, char c) {
+        int index = Arrays.binarySearch(node.keys, c);
+        if (index < 0) {
+            return;
+        }
+        int length = node.keys.length;
+        if (length == 1) {
+            node.keys = NO_KEYS;
+            node.children = NO_CHILDREN;
+            return;
+        }
+        char[] keys = new char[length - 1];
+        Node[] children = new Node[length - 1];
+        System.arraycopy(node.keys, 0, keys, 0, index);
+        System.arraycopy(node.children, 0, children, 0, index);
+        System.arraycopy(node.keys, index + 1, keys, index, length - index - 1);
+        System.arraycopy(node.children, index + 1, children, index, length - index - 1);
+        node.keys = keys;
+        node.children = children;
+    }
+}
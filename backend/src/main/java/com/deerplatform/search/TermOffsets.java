@@ -0,0 +1,118 @@
+package com.deerplatform.search;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * 单篇帖子正文中各词元的出现位置
+ *
+ * 索引时记录每个词元前几次出现在正文中的下标，供生成搜索摘要时直接定位，
+ * 不必重新扫描全文。词元按哈希值排序存储，下标差值用变长整数编码；
+ * 哈希冲突可能返回其他词元的位置，使用方需要核对原文。
+ */
+public class TermOffsets {
+    
+    // 每个词元最多记录的位置数
+    public static final int MAX_PER_TERM = 8;
+    
+    private static final int[] EMPTY = new int[0];
+    
+    private final int[] hashes;
+    private final int[] starts;
+    private final byte[] data;
+    
+    private TermOffsets(int[] hashes, int[] starts, byte[] data) {
+        this.hashes = hashes;
+        this.starts = starts;
+        this.data = data;
+    }
+    
+    /**
+     * 由词元到位置的映射构建，位置数组第0项为实际记录的个数
+     */
+    public static TermOffsets build(Map<String, int[]> offsets) {
+        long[] entries = new long[offsets.size()];
+        int[][] values = new int[offsets.size()][];
+        int n = 0;
+        for (Map.Entry<String, int[]> entry : offsets.entrySet()) {
+            // 高32位为哈希值，低32位为原始序号，排序后按哈希有序
+            entries[n] = ((long) entry.getKey().hashCode() << 32) | n;
+            values[n] = entry.getValue();
+            n++;
+        }
+        Arrays.sort(entries);
+        
+        int[] hashes = new int[n];
+        int[] starts = new int[n + 1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < n; i++) {
+            hashes[i] = (int) (entries[i] >> 32);
+            starts[i] = out.size();
+            int[] value = values[(int) entries[i]];
+            int last = 0;
+            for (int k = 1; k <= value[0]; k++) {
+                writeVarInt(out, value[k] - last);
+                last = value[k];
+            }
+        }
+        starts[n] = out.size();
+        return new TermOffsets(hashes, starts, out.toByteArray());
+    }
+    
+    /**
+     * 获取词元的出现位置（升序）
+     */
+    public int[] get(String term) {
+        int hash = term.hashCode();
+        int index = Arrays.binarySearch(hashes, hash);
+        if (index < 0) {
+            return EMPTY;
+        }
+        // 哈希相同的条目相邻，全部返回
+        int from = index;
+        while (from > 0 && hashes[from - 1] == hash) {
+            from--;
+        }
+        int to = index;
+        while (to + 1 < hashes.length && hashes[to + 1] == hash) {
+            to++;
+        }
+        
+        int[] result = new int[MAX_PER_TERM * (to - from + 1)];
+        int count = 0;
+        for (int i = from; i <= to; i++) {
+            int pos = starts[i];
+            int last = 0;
+            while (pos < starts[i + 1]) {
+                int value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[pos++];
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                last += value;
+                result[count++] = last;
+            }
+        }
+        result = Arrays.copyOf(result, count);
+        if (to > from) {
+            Arrays.sort(result);
+        }
+        return result;
+    }
+    
+    public int getSizeInBytes() {
+        return hashes.length * 8 + data.length;
+    }
+    
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
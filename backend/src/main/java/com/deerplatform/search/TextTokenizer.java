@@ -0,0 +1,119 @@
+package com.deerplatform.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分词器
+ *
+ * 中日韩文字按相邻两字切分（bigram），字母和数字按连续串切分并转为小写，
+ * 其余字符视为分隔符。可选跳过HTML标签和实体，直接处理帖子正文。
+ */
+public class TextTokenizer {
+    
+    /**
+     * 分词回调，position为词元序号，offset为词元在原文中的起始下标
+     */
+    public interface TokenConsumer {
+        void accept(String term, int position, int offset);
+    }
+    
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        tokenize(text, false, (term, position, offset) -> terms.add(term));
+        return terms;
+    }
+    
+    /**
+     * 分词，返回产生的词元数量
+     */
+    public static int tokenize(String text, boolean skipMarkup, TokenConsumer consumer) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        
+        int position = 0;
+        StringBuilder word = new StringBuilder();
+        int wordStart = 0;
+        int prevCjk = -1;  // 上一个中日韩字符，-1表示不在中日韩字符串中
+        int prevCjkStart = 0;
+        boolean cjkRunEmitted = false;
+        int length = text.length();
+        int i = 0;
+        
+        while (i < length) {
+            int cp = text.codePointAt(i);
+            int next = i + Character.charCount(cp);
+            
+            if (skipMarkup && (cp == '<' || cp == '&')) {
+                int end = text.indexOf(cp == '<' ? '>' : ';', next);
+                // 实体最长不超过10个字符，否则按普通字符处理
+                if (end >= 0 && (cp == '<' || end - next <= 10)) {
+                    position = flushWord(word, wordStart, position, consumer);
+                    position = flushCjk(prevCjk, prevCjkStart, cjkRunEmitted, position, consumer);
+                    prevCjk = -1;
+                    cjkRunEmitted = false;
+                    i = end + 1;
+                    continue;
+                }
+            }
+            
+            if (isCjk(cp)) {
+                position = flushWord(word, wordStart, position, consumer);
+                if (prevCjk >= 0) {
+                    consumer.accept(new StringBuilder(4).appendCodePoint(prevCjk).appendCodePoint(cp).toString(),
+                            position++, prevCjkStart);
+                    cjkRunEmitted = true;
+                }
+                prevCjk = cp;
+                prevCjkStart = i;
+            } else {
+                position = flushCjk(prevCjk, prevCjkStart, cjkRunEmitted, position, consumer);
+                prevCjk = -1;
+                cjkRunEmitted = false;
+                if (Character.isLetterOrDigit(cp)) {
+                    if (word.length() == 0) {
+                        wordStart = i;
+                    }
+                    word.appendCodePoint(Character.toLowerCase(cp));
+                } else {
+                    position = flushWord(word, wordStart, position, consumer);
+                }
+            }
+            i = next;
+        }
+        
+        position = flushWord(word, wordStart, position, consumer);
+        position = flushCjk(prevCjk, prevCjkStart, cjkRunEmitted, position, consumer);
+        return position;
+    }
+    
+    /**
+     * 是否中日韩文字
+     */
+    public static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+    
+    private static int flushWord(StringBuilder word, int start, int position, TokenConsumer consumer) {
+        if (word.length() > 0) {
+            consumer.accept(word.toString(), position++, start);
+            word.setLength(0);
+        }
+        return position;
+    }
+    
+    /**
+     * 单独出现的中日韩字符作为一个词元
+     */
+    private static int flushCjk(int prevCjk, int start, boolean runEmitted, int position, TokenConsumer consumer) {
+        if (prevCjk >= 0 && !runEmitted) {
+            consumer.accept(new String(Character.toChars(prevCjk)), position++, start);
+        }
+        return position;
+    }
+}
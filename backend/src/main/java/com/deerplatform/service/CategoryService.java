@@ -3,16 +3,19 @@ package com.deerplatform.service;
 import com.deerplatform.dto.CategoryDTO;
 import com.deerplatform.entity.Category;
 import com.deerplatform.repository.CategoryRepository;
+import com.deerplatform.util.TransactionUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +25,9 @@ public class CategoryService {
     
     private final CategoryRepository categoryRepository;
     
+    // 分类列表代号，分类发生任何写操作后递增，用于生成ETag
+    private final AtomicLong generation = new AtomicLong();
+    
     /**
      * 创建分类
      */
@@ -39,6 +45,7 @@ public class CategoryService {
         category.setSortOrder(getNextSortOrder());
         
         Category savedCategory = categoryRepository.save(category);
+        onCategoriesChanged();
         return CategoryDTO.fromEntity(savedCategory);
     }
     
@@ -60,6 +67,7 @@ public class CategoryService {
         category.setUpdatedAt(LocalDateTime.now());
         
         Category savedCategory = categoryRepository.save(category);
+        onCategoriesChanged();
         return CategoryDTO.fromEntity(savedCategory);
     }
     
@@ -74,6 +82,7 @@ public class CategoryService {
         category.setStatus(Category.Status.INACTIVE);
         category.setUpdatedAt(LocalDateTime.now());
         categoryRepository.save(category);
+        onCategoriesChanged();
     }
     
     /**
@@ -117,6 +126,23 @@ public class CategoryService {
         category.setSortOrder(sortOrder);
         category.setUpdatedAt(LocalDateTime.now());
         categoryRepository.save(category);
+        onCategoriesChanged();
+    }
+    
+    /**
+     * 分类列表版本，只读内存不访问数据库
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getCategoryListVersion() {
+        return String.valueOf(generation.get());
+    }
+    
+    /**
+     * 递增代号，存在事务时在提交后再递增一次，避免提交前读到旧数据的响应带上新代号
+     */
+    private void onCategoriesChanged() {
+        generation.incrementAndGet();
+        TransactionUtil.afterCommit(generation::incrementAndGet);
     }
     
     /**
@@ -0,0 +1,102 @@
+package com.deerplatform.service;
+
+import com.deerplatform.util.ContentCompressionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 帖子正文压缩存储
+ *
+ * 开启后写入的正文超过最小长度时以deflate压缩存储，压缩后不比原文小的仍存原文；
+ * 读取时按魔数头判断，压缩与未压缩的行都能正常读取，关闭压缩不影响已压缩的数据。
+ * 压缩后数据库中的正文不再是明文，LIKE和全文索引都无法匹配，因此只允许与内存索引搜索后端一起开启；
+ * 索引就绪前的LIKE回退查询和管理后台的数据库查询只匹配标题和摘要。
+ */
+@Slf4j
+@Component
+public class PostContentCompression {
+
+    private final boolean enabled;
+    private final int level;
+    private final int minSize;
+
+    // 本实例写入时的压缩统计
+    private final LongAdder compressedWrites = new LongAdder();
+    private final LongAdder rawWrites = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder storedBytes = new LongAdder();
+
+    public PostContentCompression(@Value("${app.post.content-compression.enabled:false}") boolean enabled,
+                                  @Value("${app.post.content-compression.level:6}") int level,
+                                  @Value("${app.post.content-compression.min-size:512}") int minSize,
+                                  @Value("${app.search.backend:index}") String searchBackend) {
+        this.enabled = enabled;
+        this.level = level;
+        this.minSize = minSize;
+        if (enabled && !"index".equalsIgnoreCase(searchBackend)) {
+            throw new IllegalStateException("正文压缩存储只能与index搜索后端一起使用, 当前搜索后端: " + searchBackend);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * 转换为存储格式，未开启或不值得压缩时返回原文
+     */
+    public String encode(String content) {
+        if (!enabled || content == null || content.length() < minSize / 3
+                || ContentCompressionUtil.isCompressed(content)) {
+            return content;
+        }
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < minSize) {
+            return content;
+        }
+        String stored = ContentCompressionUtil.compress(raw, level);
+        if (stored.length() >= raw.length) {
+            rawWrites.increment();
+            return content;
+        }
+        compressedWrites.increment();
+        rawBytes.add(raw.length);
+        storedBytes.add(stored.length());
+        return stored;
+    }
+
+    /**
+     * 从存储格式还原正文
+     */
+    public String decode(String stored) {
+        return ContentCompressionUtil.decompress(stored);
+    }
+
+    /**
+     * 压缩统计信息，ratio为压缩后字节数与原文字节数之比
+     */
+    public Map<String, Object> getStats() {
+        long raw = rawBytes.sum();
+        long stored = storedBytes.sum();
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", enabled);
+        result.put("level", level);
+        result.put("minSize", minSize);
+        result.put("compressedWrites", compressedWrites.sum());
+        result.put("incompressibleWrites", rawWrites.sum());
+        result.put("rawBytes", raw);
+        result.put("storedBytes", stored);
+        result.put("ratio", raw > 0 ? (double) stored / raw : 1.0);
+        return result;
+    }
+}
@@ -0,0 +1,183 @@
+package com.deerplatform.service;
+
+import com.deerplatform.util.ContentCompressionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 帖子正文压缩迁移
+ *
+ * 按帖子ID顺序分批扫描post_content表，扫描时只读取正文开头和长度，顺带统计全表的压缩比；
+ * 仍以原文存储且达到最小长度的帖子在单独的事务中加锁读取后改写为压缩格式，
+ * 不修改修订号和updated_at，也不影响读取（压缩前后解码出的正文相同，缓存无需失效）。
+ */
+@Slf4j
+@Component
+public class PostContentMigrator {
+
+    private static final String SCAN_SQL = "SELECT post_id, LEFT(content, 32), LENGTH(content) FROM post_content " +
+            "WHERE post_id > ? ORDER BY post_id LIMIT ?";
+    private static final String UPDATE_SQL = "UPDATE post_content SET content = ? WHERE post_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PostContentCompression postContentCompression;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    // 最近一次完整扫描的结果
+    private volatile Map<String, Object> lastPass = Collections.emptyMap();
+
+    public PostContentMigrator(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               PostContentCompression postContentCompression,
+                               @Value("${app.post.content-compression.migration.enabled:true}") boolean enabled,
+                               @Value("${app.post.content-compression.migration.batch-size:200}") int batchSize,
+                               @Value("${app.post.content-compression.migration.pause:100}") long pauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.postContentCompression = postContentCompression;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    /**
+     * 定时扫描并压缩未压缩的正文，返回本次压缩的帖子数
+     */
+    @Scheduled(initialDelayString = "${app.post.content-compression.migration.initial-delay:30000}",
+               fixedDelayString = "${app.post.content-compression.migration.interval:3600000}")
+    public int migrate() {
+        if (!enabled || !postContentCompression.isEnabled()) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        int minSize = postContentCompression.getMinSize();
+        int migrated = 0;
+        long compressedRows = 0;
+        long plainRows = 0;
+        long rawBytes = 0;
+        long storedBytes = 0;
+        try {
+            long afterId = 0;
+            while (true) {
+                List<Object[]> rows = jdbcTemplate.query(SCAN_SQL,
+                        (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getLong(3)},
+                        afterId, batchSize);
+                List<Long> candidates = new ArrayList<>();
+                for (Object[] row : rows) {
+                    long storedLength = (Long) row[2];
+                    long rawLength = ContentCompressionUtil.rawLength((String) row[1]);
+                    if (rawLength >= 0) {
+                        compressedRows++;
+                        rawBytes += rawLength;
+                        storedBytes += storedLength;
+                    } else if (storedLength >= minSize) {
+                        candidates.add((Long) row[0]);
+                    } else {
+                        plainRows++;
+                        rawBytes += storedLength;
+                        storedBytes += storedLength;
+                    }
+                }
+
+                if (!candidates.isEmpty()) {
+                    long[] result = transactionTemplate.execute(status -> compress(candidates));
+                    migrated += (int) result[0];
+                    compressedRows += result[0];
+                    plainRows += candidates.size() - result[0];
+                    rawBytes += result[1];
+                    storedBytes += result[2];
+                    if (pauseMillis > 0) {
+                        Thread.sleep(pauseMillis);
+                    }
+                }
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return migrated;
+        } catch (Exception e) {
+            log.warn("正文压缩迁移失败, 将在下次重试: {}", e.getMessage());
+            return migrated;
+        }
+
+        Map<String, Object> pass = new HashMap<>();
+        pass.put("compressedRows", compressedRows);
+        pass.put("plainRows", plainRows);
+        pass.put("rawBytes", rawBytes);
+        pass.put("storedBytes", storedBytes);
+        pass.put("ratio", rawBytes > 0 ? (double) storedBytes / rawBytes : 1.0);
+        pass.put("migrated", migrated);
+        pass.put("finishedAt", System.currentTimeMillis());
+        lastPass = pass;
+        if (migrated > 0) {
+            log.info("正文压缩迁移完成, 压缩帖子数: {}, 全表压缩比: {}, 耗时: {}ms",
+                    migrated, String.format("%.3f", pass.get("ratio")), System.currentTimeMillis() - start);
+        }
+        return migrated;
+    }
+
+    /**
+     * 加锁读取候选帖子的正文并改写为压缩格式，返回{压缩帖子数, 原文字节数, 压缩后字节数}
+     */
+    private long[] compress(List<Long> ids) {
+        StringBuilder sql = new StringBuilder("SELECT post_id, content FROM post_content WHERE post_id IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") FOR UPDATE");
+        List<Object[]> rows = jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2)}, ids.toArray());
+
+        long[] result = new long[3];
+        List<Object[]> updates = new ArrayList<>();
+        for (Object[] row : rows) {
+            String content = (String) row[1];
+            if (ContentCompressionUtil.isCompressed(content)) {
+                continue;
+            }
+            String stored = postContentCompression.encode(content);
+            if (ContentCompressionUtil.isCompressed(stored)) {
+                updates.add(new Object[]{stored, row[0]});
+                result[0]++;
+                result[1] += ContentCompressionUtil.rawLength(stored);
+                result[2] += stored.length();
+            } else {
+                // 压缩后不比原文小，保持原文
+                int length = content.getBytes(StandardCharsets.UTF_8).length;
+                result[1] += length;
+                result[2] += length;
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        }
+        return result;
+    }
+
+    /**
+     * 迁移统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new HashMap<>(lastPass);
+        result.put("enabled", enabled);
+        result.put("batchSize", batchSize);
+        return result;
+    }
+}
@@ -0,0 +1,211 @@
+package com.deerplatform.service;
+
+import com.deerplatform.util.ContentCompressionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 帖子正文拆分迁移
+ *
+ * 正文已从posts.content移到post_content表。旧数据库升级后posts.content仍保存着原有正文，
+ * 启动时把该列改为可空（新帖子不再写入），再由定时任务按ID分批把正文复制到post_content并清空旧列，
+ * 每批在单独的事务中完成，迁移期间服务正常运行。
+ * 迁移完成前，只读的地方（详情、索引重建）直接读取posts.content中尚未迁移的正文，不在读请求中写库；
+ * 修改帖子的地方先调用ensureMigrated立即迁移该帖子。全部完成后不再产生任何查询。
+ * 迁移完成后可手动删除posts.content列。
+ */
+@Slf4j
+@Component
+public class PostContentSplitMigrator implements SmartInitializingSingleton {
+
+    private static final String SCAN_SQL = "SELECT id FROM posts WHERE id > ? AND content IS NOT NULL ORDER BY id LIMIT ?";
+    // 正文原样复制（可能已是压缩格式），修订号从0开始
+    private static final String COPY_SQL = "INSERT IGNORE INTO post_content (post_id, content, revision, updated_at) " +
+            "SELECT id, content, 0, updated_at FROM posts WHERE content IS NOT NULL AND id IN (%s)";
+    private static final String LEGACY_SQL = "SELECT id, content FROM posts WHERE content IS NOT NULL AND id IN (%s)";
+    private static final String CLEAR_SQL = "UPDATE posts SET content = NULL WHERE content IS NOT NULL AND id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    // posts表中不再有待迁移的正文
+    private volatile boolean completed;
+    private final AtomicLong migratedCount = new AtomicLong();
+
+    public PostContentSplitMigrator(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.post.content-split.enabled:true}") boolean enabled,
+                                    @Value("${app.post.content-split.batch-size:500}") int batchSize,
+                                    @Value("${app.post.content-split.pause:100}") long pauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        // 独立事务提交，调用方处于只读事务中时也能迁移
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    /**
+     * 所有单例创建完成（表结构已就绪）、开始接收请求之前检查旧列
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            Boolean nullable = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+                DatabaseMetaData metaData = connection.getMetaData();
+                try (ResultSet rs = metaData.getColumns(connection.getCatalog(), null, "posts", "content")) {
+                    return rs.next() ? rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls : null;
+                }
+            });
+            if (nullable == null) {
+                completed = true;
+                return;
+            }
+            if (!nullable) {
+                jdbcTemplate.execute("ALTER TABLE posts MODIFY content LONGTEXT NULL");
+                log.info("posts.content已改为可空，正文将分批迁移到post_content表");
+            }
+        } catch (Exception e) {
+            log.warn("检查posts.content失败: {}", e.getMessage());
+        }
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * 立即迁移指定帖子的正文（修改帖子前调用），迁移完成后直接返回
+     */
+    public void ensureMigrated(Long postId) {
+        if (!completed) {
+            ensureMigrated(Collections.singletonList(postId));
+        }
+    }
+
+    public void ensureMigrated(Collection<Long> postIds) {
+        if (completed || postIds.isEmpty()) {
+            return;
+        }
+        migratedCount.addAndGet(transactionTemplate.execute(status -> copy(postIds)));
+    }
+
+    /**
+     * 读取posts.content中尚未迁移的正文，已迁移或迁移完成时返回null
+     */
+    public String findLegacyContent(Long postId) {
+        return findLegacyContents(Collections.singletonList(postId)).get(postId);
+    }
+
+    /**
+     * 批量读取尚未迁移的正文，只包含旧列中仍有正文的帖子
+     */
+    public Map<Long, String> findLegacyContents(Collection<Long> postIds) {
+        Map<Long, String> contents = new HashMap<>();
+        if (completed || postIds.isEmpty()) {
+            return contents;
+        }
+        jdbcTemplate.query(String.format(LEGACY_SQL, placeholders(postIds.size())), rs -> {
+            // 旧列中的正文可能已是压缩格式
+            contents.put(rs.getLong(1), ContentCompressionUtil.decompress(rs.getString(2)));
+        }, postIds.toArray());
+        return contents;
+    }
+
+    /**
+     * 分批迁移posts表中剩余的正文
+     */
+    @Scheduled(initialDelayString = "${app.post.content-split.initial-delay:10000}",
+               fixedDelayString = "${app.post.content-split.interval:60000}")
+    public int migrate() {
+        if (!enabled || completed) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        int found = 0;
+        int migrated = 0;
+        try {
+            long afterId = 0;
+            while (true) {
+                List<Long> ids = jdbcTemplate.queryForList(SCAN_SQL, Long.class, afterId, batchSize);
+                found += ids.size();
+                if (!ids.isEmpty()) {
+                    migrated += transactionTemplate.execute(status -> copy(ids));
+                }
+                if (ids.size() < batchSize) {
+                    break;
+                }
+                afterId = ids.get(ids.size() - 1);
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return migrated;
+        } catch (Exception e) {
+            log.warn("正文拆分迁移失败, 将在下次重试: {}", e.getMessage());
+            return migrated;
+        }
+
+        migratedCount.addAndGet(migrated);
+        if (found == 0) {
+            completed = true;
+            log.info("正文拆分迁移完成, 共迁移帖子数: {}, posts.content列已可删除", migratedCount.get());
+        } else {
+            log.info("正文拆分迁移帖子数: {}, 耗时: {}ms", migrated, System.currentTimeMillis() - start);
+        }
+        return migrated;
+    }
+
+    /**
+     * 复制正文并清空旧列，已复制过的帖子不会覆盖post_content中的新正文
+     */
+    private int copy(Collection<Long> postIds) {
+        String placeholders = placeholders(postIds.size());
+        Object[] args = postIds.toArray();
+        int copied = jdbcTemplate.update(String.format(COPY_SQL, placeholders), args);
+        jdbcTemplate.update(String.format(CLEAR_SQL, placeholders), args);
+        return copied;
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        return placeholders.toString();
+    }
+
+    /**
+     * 迁移统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", enabled);
+        result.put("completed", completed);
+        result.put("migrated", migratedCount.get());
+        return result;
+    }
+}
@@ -0,0 +1,154 @@
+package com.deerplatform.service;
+
+import com.deerplatform.entity.Post;
+import com.deerplatform.repository.PostRepository;
+import com.deerplatform.util.TransactionUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 帖子数量计数缓存
+ *
+ * 按 (状态, 分类, 作者) 维度缓存帖子总数，首次访问时从数据库统计，
+ * 之后随帖子写操作增量维护，过期后重新统计以修正偏差。
+ * 列表查询因此可以使用不带 COUNT(*) 的 Slice 查询。
+ * 写操作在事务中和提交后各递增一次版本号，统计期间版本号变化时不写入缓存，
+ * 避免统计结果已包含某次写入、提交后又被增量调整一次。
+ */
+@Component
+public class PostCountCache {
+
+    private final PostRepository postRepository;
+
+    private final Cache<Key, AtomicLong> counts;
+
+    private final AtomicLong version = new AtomicLong();
+
+    public PostCountCache(PostRepository postRepository,
+                          @Value("${app.post.cache.count-max-size:10000}") long maxSize,
+                          @Value("${app.post.cache.count-ttl:600}") long ttlSeconds) {
+        this.postRepository = postRepository;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 获取帖子数量，为空的维度表示不限
+     */
+    public long count(Post.Status status, Long categoryId, Long authorId) {
+        Key key = new Key(status, categoryId, authorId);
+        AtomicLong cached = counts.getIfPresent(key);
+        if (cached != null) {
+            return cached.get();
+        }
+        long loadedVersion = version.get();
+        long count = load(key);
+        if (version.get() == loadedVersion) {
+            counts.asMap().putIfAbsent(key, new AtomicLong(count));
+            // 写入后再次检查，防止与提交后的调整交错
+            if (version.get() != loadedVersion) {
+                counts.invalidate(key);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 使用计数作为总数，把Slice转换为Page
+     */
+    public <T> Page<T> toPage(Slice<T> slice, Post.Status status, Long categoryId, Long authorId) {
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), count(status, categoryId, authorId));
+    }
+
+    /**
+     * 新增帖子
+     */
+    public void onPostAdded(Post.Status status, Long categoryId, Long authorId) {
+        version.incrementAndGet();
+        TransactionUtil.afterCommit(() -> adjust(status, categoryId, authorId, 1));
+    }
+
+    /**
+     * 删除帖子
+     */
+    public void onPostRemoved(Post.Status status, Long categoryId, Long authorId) {
+        version.incrementAndGet();
+        TransactionUtil.afterCommit(() -> adjust(status, categoryId, authorId, -1));
+    }
+
+    /**
+     * 帖子状态或分类发生变化
+     */
+    public void onPostMoved(Post.Status oldStatus, Long oldCategoryId,
+                            Post.Status newStatus, Long newCategoryId, Long authorId) {
+        if (oldStatus == newStatus && oldCategoryId.equals(newCategoryId)) {
+            return;
+        }
+        version.incrementAndGet();
+        TransactionUtil.afterCommit(() -> {
+            adjust(oldStatus, oldCategoryId, authorId, -1);
+            adjust(newStatus, newCategoryId, authorId, 1);
+        });
+    }
+
+    private void adjust(Post.Status status, Long categoryId, Long authorId, long delta) {
+        version.incrementAndGet();
+        increment(new Key(status, null, null), delta);
+        increment(new Key(status, categoryId, null), delta);
+        increment(new Key(null, null, authorId), delta);
+        increment(new Key(null, null, null), delta);
+    }
+
+    private void increment(Key key, long delta) {
+        // 只调整已加载的计数，未加载的在首次访问时直接统计
+        AtomicLong count = counts.getIfPresent(key);
+        if (count != null) {
+            count.addAndGet(delta);
+        }
+    }
+
+    private long load(Key key) {
+        if (key.getAuthorId() != null) {
+            return postRepository.countByAuthorId(key.getAuthorId());
+        }
+        if (key.getCategoryId() != null) {
+            return postRepository.countByCategoryIdAndStatus(key.getCategoryId(), key.getStatus());
+        }
+        if (key.getStatus() != null) {
+            return postRepository.countByStatus(key.getStatus());
+        }
+        return postRepository.count();
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", counts.estimatedSize());
+        result.put("hitCount", counts.stats().hitCount());
+        result.put("missCount", counts.stats().missCount());
+        result.put("evictionCount", counts.stats().evictionCount());
+        return result;
+    }
+
+    @lombok.Value
+    private static class Key {
+        Post.Status status;
+        Long categoryId;
+        Long authorId;
+    }
+}
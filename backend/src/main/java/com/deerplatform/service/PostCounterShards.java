@@ -0,0 +1,240 @@
+package com.deerplatform.service;
+
+import com.deerplatform.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热点帖子计数分片
+ *
+ * 帖子在一个统计窗口内的计数写入次数超过阈值后自动切换为分片写入：
+ * 增量随机写入post_counter_shards的N行之一，避免所有请求争用posts表的同一行锁，
+ * 再由定时任务把各分片的增量合并回posts表。
+ * 未合并的增量同时记在内存中（写入时累加、合并后扣减、事务回滚时撤销），读取计数时直接加上，不查询分片表。
+ * 热点判断和内存中的增量只基于本实例的写入，其他实例写入的分片由其自身合并。
+ */
+@Slf4j
+@Component
+public class PostCounterShards {
+
+    /**
+     * 分片计数类型及其在posts表中对应的列
+     */
+    public enum Metric {
+        LIKE("like_count"),
+        FAVORITE("favorite_count");
+
+        private final String column;
+
+        Metric(String column) {
+            this.column = column;
+        }
+    }
+
+    private static final String UPSERT_SQL = "INSERT INTO post_counter_shards (post_id, metric, shard, delta) " +
+            "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE delta = delta + VALUES(delta)";
+    private static final String SCAN_SQL = "SELECT post_id, metric, shard, delta FROM post_counter_shards " +
+            "WHERE delta <> 0 ORDER BY post_id, metric";
+    // 扣减已合并的增量而不是清零，避免丢失合并期间的并发写入
+    private static final String TAKE_SQL = "UPDATE post_counter_shards SET delta = delta - ? " +
+            "WHERE post_id = ? AND metric = ? AND shard = ?";
+    private static final String CLEAN_SQL = "DELETE FROM post_counter_shards WHERE post_id = ? AND delta = 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int shards;
+    private final int hotThreshold;
+
+    // 当前统计窗口内各帖子的计数写入次数
+    private final ConcurrentHashMap<Long, LongAdder> recentWrites = new ConcurrentHashMap<>();
+    // 已切换为分片写入的帖子
+    private final Set<Long> hotPosts = ConcurrentHashMap.newKeySet();
+    // 本实例写入分片、尚未合并的增量，按Metric顺序存放；数组不修改，每次替换
+    private final ConcurrentHashMap<Long, long[]> pendingDeltas = new ConcurrentHashMap<>();
+    // 启动时合并上次遗留的增量
+    private volatile boolean dirty = true;
+
+    public PostCounterShards(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${app.post.counter-shard.enabled:true}") boolean enabled,
+                             @Value("${app.post.counter-shard.shards:8}") int shards,
+                             @Value("${app.post.counter-shard.hot-threshold:50}") int hotThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.shards = shards;
+        this.hotThreshold = hotThreshold;
+    }
+
+    /**
+     * 记录一次计数变化，帖子是热点时写入随机分片并返回true，
+     * 否则返回false，由调用方直接更新posts表
+     */
+    public boolean add(Long postId, Metric metric, long delta) {
+        if (!enabled) {
+            return false;
+        }
+        LongAdder writes = recentWrites.computeIfAbsent(postId, id -> new LongAdder());
+        writes.increment();
+        if (!hotPosts.contains(postId)) {
+            if (writes.sum() < hotThreshold) {
+                return false;
+            }
+            hotPosts.add(postId);
+            log.info("帖子 {} 计数写入频繁，切换为分片写入", postId);
+        }
+
+        // 先记入内存再写分片，合并任务不会在增量记入之前移除该帖子
+        addPending(postId, metric, delta);
+        dirty = true;
+        int shard = ThreadLocalRandom.current().nextInt(shards);
+        try {
+            jdbcTemplate.update(UPSERT_SQL, postId, metric.name(), shard, delta);
+        } catch (RuntimeException e) {
+            addPending(postId, metric, -delta);
+            throw e;
+        }
+        TransactionUtil.afterRollback(() -> addPending(postId, metric, -delta));
+        return true;
+    }
+
+    /**
+     * 获取尚未合并回posts表的增量，只读内存，没有分片写入的帖子返回0
+     */
+    public long getPending(Long postId, Metric metric) {
+        long[] deltas = enabled ? pendingDeltas.get(postId) : null;
+        return deltas != null ? deltas[metric.ordinal()] : 0;
+    }
+
+    /**
+     * 帖子是否可能有未合并的分片增量
+     */
+    public boolean hasPending(Long postId) {
+        return enabled && pendingDeltas.containsKey(postId);
+    }
+
+    /**
+     * 统计窗口结束，写入频率降到阈值一半以下的帖子恢复直接写入
+     */
+    @Scheduled(fixedDelayString = "${app.post.counter-shard.window:10000}")
+    public void rotateWindow() {
+        if (!enabled) {
+            return;
+        }
+        for (Long postId : hotPosts) {
+            LongAdder writes = recentWrites.get(postId);
+            if (writes == null || writes.sum() < hotThreshold / 2) {
+                hotPosts.remove(postId);
+                // 触发一次合并，清理该帖子的分片
+                dirty = true;
+                log.info("帖子 {} 写入频率回落，恢复直接写入", postId);
+            }
+        }
+        recentWrites.clear();
+    }
+
+    /**
+     * 把各分片的增量合并回posts表，每个帖子的每种计数在单独的事务中合并
+     */
+    @Scheduled(fixedDelayString = "${app.post.counter-shard.compact-interval:2000}")
+    public void compact() {
+        if (!enabled || !dirty) {
+            return;
+        }
+        dirty = false;
+
+        try {
+            Map<String, List<Object[]>> groups = new LinkedHashMap<>();
+            jdbcTemplate.query(SCAN_SQL, rs -> {
+                Object[] row = {rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getLong(4)};
+                groups.computeIfAbsent(row[0] + ":" + row[1], key -> new ArrayList<>()).add(row);
+            });
+
+            for (List<Object[]> rows : groups.values()) {
+                Long postId = (Long) rows.get(0)[0];
+                Metric metric = Metric.valueOf((String) rows.get(0)[1]);
+                Long folded = transactionTemplate.execute(status -> fold(postId, metric, rows));
+                // 内存中没有记录的是上次运行遗留的增量，不需要扣减
+                pendingDeltas.computeIfPresent(postId, (id, deltas) -> adjust(deltas, metric, -folded));
+            }
+
+            // 不再是热点且增量已全部合并的帖子清理分片行；在映射的锁内再次检查，与add记入增量互斥
+            for (Map.Entry<Long, long[]> entry : pendingDeltas.entrySet()) {
+                Long postId = entry.getKey();
+                if (!hotPosts.contains(postId) && isZero(entry.getValue())) {
+                    jdbcTemplate.update(CLEAN_SQL, postId);
+                    pendingDeltas.computeIfPresent(postId,
+                            (id, deltas) -> !hotPosts.contains(id) && isZero(deltas) ? null : deltas);
+                }
+            }
+            if (!groups.isEmpty()) {
+                log.debug("计数分片合并完成, 合并计数: {}", groups.size());
+            }
+        } catch (Exception e) {
+            dirty = true;
+            log.warn("计数分片合并失败, 将在下次重试: {}", e.getMessage());
+        }
+    }
+
+    private long fold(Long postId, Metric metric, List<Object[]> rows) {
+        long total = 0;
+        List<Object[]> takes = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            long delta = (Long) row[3];
+            total += delta;
+            takes.add(new Object[]{delta, postId, metric.name(), row[2]});
+        }
+        jdbcTemplate.batchUpdate(TAKE_SQL, takes);
+        jdbcTemplate.update("UPDATE posts SET " + metric.column + " = GREATEST(" + metric.column + " + ?, 0) WHERE id = ?",
+                total, postId);
+        return total;
+    }
+
+    private void addPending(Long postId, Metric metric, long delta) {
+        pendingDeltas.compute(postId, (id, deltas) ->
+                adjust(deltas != null ? deltas : new long[Metric.values().length], metric, delta));
+    }
+
+    private static long[] adjust(long[] deltas, Metric metric, long delta) {
+        long[] updated = deltas.clone();
+        updated[metric.ordinal()] += delta;
+        return updated;
+    }
+
+    private static boolean isZero(long[] deltas) {
+        for (long delta : deltas) {
+            if (delta != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 分片统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", enabled);
+        result.put("shards", shards);
+        result.put("hotThreshold", hotThreshold);
+        result.put("hotPosts", hotPosts.size());
+        result.put("pendingPosts", pendingDeltas.size());
+        return result;
+    }
+}
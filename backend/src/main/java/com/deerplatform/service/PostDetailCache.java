@@ -0,0 +1,124 @@
+package com.deerplatform.service;
+
+import com.deerplatform.dto.PostDTO;
+import com.deerplatform.util.TransactionUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 帖子详情缓存
+ *
+ * 按帖子ID缓存PostDTO，按容量和过期时间淘汰。
+ * 每次失效都会递增版本号，读取前记录的版本与写入时不一致则放弃写入，
+ * 避免并发读把失效前的旧数据重新放回缓存。
+ */
+@Component
+public class PostDetailCache {
+
+    private final Cache<Long, PostDTO> cache;
+
+    private final AtomicLong version = new AtomicLong();
+
+    public PostDetailCache(@Value("${app.post.cache.detail-max-size:10000}") long maxSize,
+                           @Value("${app.post.cache.detail-ttl:600}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 获取当前版本号，应在查询数据库之前调用
+     */
+    public long currentVersion() {
+        return version.get();
+    }
+
+    /**
+     * 读取缓存，返回副本以免调用方修改缓存中的对象
+     */
+    public PostDTO get(Long postId) {
+        PostDTO cached = cache.getIfPresent(postId);
+        return cached != null ? cached.toBuilder().build() : null;
+    }
+
+    /**
+     * 写入缓存，版本号在查询期间发生变化时放弃写入
+     */
+    public void put(Long postId, PostDTO post, long loadedVersion) {
+        if (version.get() != loadedVersion) {
+            return;
+        }
+        cache.put(postId, post.toBuilder().build());
+        // 写入后再次检查，防止与失效操作交错
+        if (version.get() != loadedVersion) {
+            cache.invalidate(postId);
+        }
+    }
+
+    /**
+     * 浏览量写回数据库后同步调整缓存中的计数
+     */
+    public void addViewCount(Long postId, long delta) {
+        cache.asMap().computeIfPresent(postId, (id, post) -> post.toBuilder()
+                .viewCount((int) (post.getViewCount() + delta))
+                .build());
+    }
+
+    /**
+     * 点赞提交后同步调整缓存中的点赞数
+     */
+    public void addLikeCount(Long postId, int delta) {
+        TransactionUtil.afterCommit(() -> cache.asMap().computeIfPresent(postId, (id, post) -> post.toBuilder()
+                .likeCount(Math.max(0, post.getLikeCount() + delta))
+                .build()));
+    }
+
+    /**
+     * 收藏提交后同步调整缓存中的收藏数
+     */
+    public void addFavoriteCount(Long postId, int delta) {
+        TransactionUtil.afterCommit(() -> cache.asMap().computeIfPresent(postId, (id, post) -> post.toBuilder()
+                .favoriteCount(Math.max(0, post.getFavoriteCount() + delta))
+                .build()));
+    }
+
+    /**
+     * 使缓存失效，存在事务时在提交后再失效一次
+     */
+    public void invalidate(Long postId) {
+        evict(postId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionUtil.afterCommit(() -> evict(postId));
+        }
+    }
+
+    private void evict(Long postId) {
+        version.incrementAndGet();
+        cache.invalidate(postId);
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+}
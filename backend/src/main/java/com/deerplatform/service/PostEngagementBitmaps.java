@@ -0,0 +1,302 @@
+package com.deerplatform.service;
+
+import com.deerplatform.entity.UserLike;
+import com.deerplatform.repository.UserFavoriteRepository;
+import com.deerplatform.repository.UserLikeRepository;
+import com.deerplatform.util.TransactionUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 帖子点赞用户、收藏用户位图
+ *
+ * 只为热门帖子建立位图：统计窗口内状态查询次数达到阈值后，由后台线程从user_likes和user_favorites
+ * 加载该帖子的全部点赞和收藏用户；未加载前返回null，由调用方按索引逐条查询数据库。
+ * 加载后“是否已点赞/收藏”和点赞、收藏数量直接由内存位图回答，点赞和收藏提交后同步更新位图。
+ * 按位图占用的字节数限制总内存，超出时由Caffeine按访问频率淘汰冷门帖子，长时间未访问的帖子也会过期。
+ */
+@Slf4j
+@Component
+public class PostEngagementBitmaps {
+
+    private final UserLikeRepository userLikeRepository;
+    private final UserFavoriteRepository userFavoriteRepository;
+    private final boolean enabled;
+    private final int loadThreshold;
+
+    private final Cache<Long, Entry> cache;
+
+    // 尚未加载位图的帖子在统计窗口内的状态查询次数
+    private final Cache<Long, AtomicInteger> accessCounts;
+
+    // 已提交加载任务的帖子
+    private final Set<Long> loading = ConcurrentHashMap.newKeySet();
+
+    // 单线程加载，队列满时放弃，下次达到阈值再提交
+    private final ThreadPoolExecutor loader = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(256), runnable -> {
+                Thread thread = new Thread(runnable, "post-bitmap-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    // 正在加载的帖子及加载期间提交的变化，加载完成时先补上这些变化再写入缓存
+    private final ConcurrentHashMap<Long, List<Change>> loadingChanges = new ConcurrentHashMap<>();
+
+    public PostEngagementBitmaps(UserLikeRepository userLikeRepository,
+                                 UserFavoriteRepository userFavoriteRepository,
+                                 @Value("${app.post.engagement-bitmap.enabled:true}") boolean enabled,
+                                 @Value("${app.post.engagement-bitmap.max-memory:16777216}") long maxBytes,
+                                 @Value("${app.post.engagement-bitmap.expire-after-access:1800}") long expireSeconds,
+                                 @Value("${app.post.engagement-bitmap.load-threshold:20}") int loadThreshold,
+                                 @Value("${app.post.engagement-bitmap.access-window:60}") long accessWindowSeconds) {
+        this.userLikeRepository = userLikeRepository;
+        this.userFavoriteRepository = userFavoriteRepository;
+        this.enabled = enabled;
+        this.loadThreshold = Math.max(1, loadThreshold);
+        this.accessCounts = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofSeconds(accessWindowSeconds))
+                .build();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long postId, Entry entry) -> entry.weight)
+                .expireAfterAccess(Duration.ofSeconds(expireSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 获取帖子的点赞和收藏状态，位图未加载时返回null，由调用方查询数据库
+     *
+     * 未加载时累计查询次数，达到阈值后提交后台加载，请求线程不读取点赞、收藏用户列表。
+     */
+    public Map<String, Object> getStatus(Long postId, Long userId) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(postId);
+        if (entry != null) {
+            return toStatus(entry, userId);
+        }
+        recordAccess(postId);
+        return null;
+    }
+
+    /**
+     * 只从已加载的位图获取状态，未加载时返回null且不触发加载
+     */
+    public Map<String, Object> getCachedStatus(Long postId, Long userId) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(postId);
+        return entry != null ? toStatus(entry, userId) : null;
+    }
+
+    /**
+     * 点赞或取消点赞提交后更新位图
+     */
+    public void onLikeChanged(Long postId, Long userId, boolean liked) {
+        if (enabled) {
+            TransactionUtil.afterCommit(() -> update(postId, userId, false, liked));
+        }
+    }
+
+    /**
+     * 收藏或取消收藏提交后更新位图
+     */
+    public void onFavoriteChanged(Long postId, Long userId, boolean favorited) {
+        if (enabled) {
+            TransactionUtil.afterCommit(() -> update(postId, userId, true, favorited));
+        }
+    }
+
+    /**
+     * 帖子删除后丢弃位图
+     */
+    public void onPostRemoved(Long postId) {
+        if (enabled) {
+            TransactionUtil.afterCommit(() -> {
+                recordChange(postId, Change.DISCARD);
+                cache.invalidate(postId);
+            });
+        }
+    }
+
+    private Map<String, Object> toStatus(Entry entry, Long userId) {
+        Map<String, Object> status = new HashMap<>();
+        synchronized (entry) {
+            status.put("likeCount", entry.likers.cardinality());
+            status.put("favoriteCount", entry.favoriters.cardinality());
+            status.put("isLiked", userId != null && entry.likers.contains(userId));
+            status.put("isFavorited", userId != null && entry.favoriters.contains(userId));
+        }
+        return status;
+    }
+
+    private void recordAccess(Long postId) {
+        int count = accessCounts.get(postId, id -> new AtomicInteger()).incrementAndGet();
+        if (count < loadThreshold || !loading.add(postId)) {
+            return;
+        }
+        accessCounts.invalidate(postId);
+        try {
+            loader.execute(() -> {
+                try {
+                    load(postId);
+                } catch (Exception e) {
+                    log.warn("帖子位图加载失败, postId: {}, {}", postId, e.getMessage());
+                } finally {
+                    loading.remove(postId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(postId);
+        }
+    }
+
+    private void load(Long postId) {
+        loadingChanges.put(postId, new ArrayList<>());
+        try {
+            List<Long> likers = userLikeRepository.findUserIdsByTarget(postId, UserLike.TargetType.POST);
+            List<Long> favoriters = userFavoriteRepository.findUserIdsByPostId(postId);
+
+            Entry entry = new Entry();
+            if (!fill(entry.likers, likers) || !fill(entry.favoriters, favoriters)) {
+                return;
+            }
+            // 在映射的锁内补上加载期间的变化并写入缓存，与recordChange互斥；变化重复应用结果不变
+            loadingChanges.compute(postId, (id, changes) -> {
+                if (changes != null && apply(entry, changes)) {
+                    entry.reweigh();
+                    cache.put(postId, entry);
+                }
+                return null;
+            });
+        } finally {
+            loadingChanges.remove(postId);
+        }
+    }
+
+    private boolean apply(Entry entry, List<Change> changes) {
+        for (Change change : changes) {
+            if (change == Change.DISCARD || !UserIdBitmap.accepts(change.userId)) {
+                return false;
+            }
+            UserIdBitmap bitmap = change.favorite ? entry.favoriters : entry.likers;
+            if (change.present) {
+                bitmap.add(change.userId);
+            } else {
+                bitmap.remove(change.userId);
+            }
+        }
+        return true;
+    }
+
+    private void recordChange(Long postId, Change change) {
+        loadingChanges.computeIfPresent(postId, (id, changes) -> {
+            changes.add(change);
+            return changes;
+        });
+    }
+
+    private boolean fill(UserIdBitmap bitmap, List<Long> userIds) {
+        for (Long userId : userIds) {
+            if (!UserIdBitmap.accepts(userId)) {
+                return false;
+            }
+            bitmap.add(userId);
+        }
+        return true;
+    }
+
+    private void update(Long postId, Long userId, boolean favorite, boolean present) {
+        recordChange(postId, new Change(userId, favorite, present));
+        if (!UserIdBitmap.accepts(userId)) {
+            cache.invalidate(postId);
+            return;
+        }
+        // 在compute中修改，写回后按新的大小重新计算权重
+        cache.asMap().computeIfPresent(postId, (id, entry) -> {
+            synchronized (entry) {
+                UserIdBitmap bitmap = favorite ? entry.favoriters : entry.likers;
+                if (present) {
+                    bitmap.add(userId);
+                } else {
+                    bitmap.remove(userId);
+                }
+                entry.reweigh();
+            }
+            return entry;
+        });
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", enabled);
+        result.put("loadThreshold", loadThreshold);
+        result.put("loading", loading.size());
+        result.put("size", cache.estimatedSize());
+        result.put("bytes", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * 加载期间提交的一次点赞或收藏变化
+     */
+    private static class Change {
+        // 帖子已删除，放弃本次加载
+        static final Change DISCARD = new Change(null, false, false);
+
+        final Long userId;
+        final boolean favorite;
+        final boolean present;
+
+        Change(Long userId, boolean favorite, boolean present) {
+            this.userId = userId;
+            this.favorite = favorite;
+            this.present = present;
+        }
+    }
+
+    private static class Entry {
+        final UserIdBitmap likers = new UserIdBitmap();
+        final UserIdBitmap favoriters = new UserIdBitmap();
+        int weight;
+
+        void reweigh() {
+            weight = 64 + likers.getSizeInBytes() + favoriters.getSizeInBytes();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.deerplatform.service;
+
+import com.deerplatform.repository.PostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 帖子收藏数修正
+ *
+ * 按ID顺序分批比较posts.favorite_count与user_favorites中的实际记录数，修正存在偏差的帖子。
+ * 更新时以读取到的旧值为条件，期间被收藏操作修改过的帖子留到下一轮处理；
+ * 计数分片中还有未合并增量的帖子同样跳过。
+ */
+@Slf4j
+@Component
+public class PostFavoriteCountReconciler {
+
+    private static final String REPAIR_SQL = "UPDATE posts SET favorite_count = ? WHERE id = ? AND favorite_count = ?";
+
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PostCounterShards postCounterShards;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public PostFavoriteCountReconciler(PostRepository postRepository,
+                                       JdbcTemplate jdbcTemplate,
+                                       PostCounterShards postCounterShards,
+                                       @Value("${app.post.favorite-reconcile.enabled:true}") boolean enabled,
+                                       @Value("${app.post.favorite-reconcile.batch-size:500}") int batchSize) {
+        this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.postCounterShards = postCounterShards;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 定时修正收藏数，返回修正的帖子数
+     */
+    @Scheduled(initialDelayString = "${app.post.favorite-reconcile.initial-delay:60000}",
+               fixedDelayString = "${app.post.favorite-reconcile.interval:3600000}")
+    public int reconcile() {
+        if (!enabled) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        int repaired = 0;
+        try {
+            long afterId = 0;
+            while (true) {
+                List<Object[]> rows = postRepository.findFavoriteCountBatch(afterId, PageRequest.of(0, batchSize));
+                List<Object[]> batch = new ArrayList<>();
+                for (Object[] row : rows) {
+                    Long postId = (Long) row[0];
+                    int stored = (Integer) row[1];
+                    long actual = (Long) row[2];
+                    if (stored != actual && !postCounterShards.hasPending(postId)) {
+                        batch.add(new Object[]{actual, postId, stored});
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    for (int updated : jdbcTemplate.batchUpdate(REPAIR_SQL, batch)) {
+                        repaired += Math.max(updated, 0);
+                    }
+                }
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } catch (Exception e) {
+            log.warn("收藏数修正失败: {}", e.getMessage());
+            return repaired;
+        }
+        if (repaired > 0) {
+            log.info("收藏数修正完成, 修正帖子数: {}, 耗时: {}ms", repaired, System.currentTimeMillis() - start);
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,402 @@
+package com.deerplatform.service;
+
+import com.deerplatform.entity.Post;
+import com.deerplatform.repository.PostRepository;
+import com.deerplatform.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 帖子热度排行
+ *
+ * 热度分 = (浏览 × w1 + 点赞 × w2 + 收藏 × w3 + 评论 × w4 + 1) / (发布小时数 + 2) ^ gravity，
+ * 新帖子随时间自然下沉。定时任务重新计算全部已发布帖子的热度分，
+ * 排好序的帖子ID（全站和各分类）保存在内存数组中，热门列表按下标直接取页；
+ * 热度分同时写回 hot_score 列，重启时先按该列恢复排行。
+ * 新发布的帖子在提交后按初始热度分插入排行，下架、删除的帖子移出，修改分类的帖子改挂到新分类，
+ * 不必等到下次计算，热门列表每页条数和总数保持准确。
+ */
+@Slf4j
+@Component
+public class PostHotRanking {
+    
+    private static final String PERSIST_SQL = "UPDATE posts SET hot_score = ? WHERE id = ?";
+    private static final int BATCH_SIZE = 1000;
+    
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PostListCache postListCache;
+    
+    private final boolean enabled;
+    private final double viewWeight;
+    private final double likeWeight;
+    private final double favoriteWeight;
+    private final double commentWeight;
+    private final double gravity;
+    
+    private volatile Ranking ranking;
+    
+    // 上次写回数据库的热度分，变化不大的不再重复写回
+    private Map<Long, Double> persistedScores = new HashMap<>();
+    
+    public PostHotRanking(PostRepository postRepository,
+                          JdbcTemplate jdbcTemplate,
+                          PostListCache postListCache,
+                          @Value("${app.post.hot.enabled:true}") boolean enabled,
+                          @Value("${app.post.hot.view-weight:1}") double viewWeight,
+                          @Value("${app.post.hot.like-weight:5}") double likeWeight,
+                          @Value("${app.post.hot.favorite-weight:8}") double favoriteWeight,
+                          @Value("${app.post.hot.comment-weight:3}") double commentWeight,
+                          @Value("${app.post.hot.gravity:1.5}") double gravity) {
+        this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.postListCache = postListCache;
+        this.enabled = enabled;
+        this.viewWeight = viewWeight;
+        this.likeWeight = likeWeight;
+        this.favoriteWeight = favoriteWeight;
+        this.commentWeight = commentWeight;
+        this.gravity = gravity;
+    }
+    
+    /**
+     * 启动时按已保存的热度分恢复排行
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<Object[]> rows = postRepository.findIdsOrderByHotScore(Post.Status.PUBLISHED);
+            long[] ids = new long[rows.size()];
+            long[] categoryIds = new long[rows.size()];
+            double[] scores = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                ids[i] = (Long) rows.get(i)[0];
+                categoryIds[i] = (Long) rows.get(i)[1];
+                scores[i] = rows.get(i)[2] != null ? (Double) rows.get(i)[2] : 0;
+            }
+            ranking = Ranking.of(ids, categoryIds, scores);
+            log.info("热度排行已按保存的热度分恢复, 帖子数: {}", ids.length);
+        } catch (Exception e) {
+            log.warn("恢复热度排行失败, 等待定时任务计算: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 定时重新计算热度分
+     */
+    @Scheduled(initialDelayString = "${app.post.hot.initial-delay:10000}",
+               fixedDelayString = "${app.post.hot.refresh-interval:300000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int count = 0;
+            long[] ids = new long[1024];
+            long[] categoryIds = new long[1024];
+            double[] scores = new double[1024];
+            
+            long afterId = 0;
+            while (true) {
+                List<Object[]> rows = postRepository.findHotStatsBatch(Post.Status.PUBLISHED, afterId,
+                        PageRequest.of(0, BATCH_SIZE));
+                for (Object[] row : rows) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                        categoryIds = Arrays.copyOf(categoryIds, count * 2);
+                        scores = Arrays.copyOf(scores, count * 2);
+                    }
+                    ids[count] = (Long) row[0];
+                    categoryIds[count] = (Long) row[1];
+                    scores[count] = score(toLong(row[2]), toLong(row[3]), toLong(row[6]),
+                            toLong(row[4]), (LocalDateTime) row[5], now);
+                    count++;
+                }
+                if (rows.size() < BATCH_SIZE) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            
+            // 按热度分降序排列下标
+            final double[] finalScores = scores;
+            final long[] finalIds = ids;
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                int result = Double.compare(finalScores[b], finalScores[a]);
+                return result != 0 ? result : Long.compare(finalIds[b], finalIds[a]);
+            });
+            long[] rankedIds = new long[count];
+            long[] rankedCategoryIds = new long[count];
+            double[] rankedScores = new double[count];
+            for (int i = 0; i < count; i++) {
+                rankedIds[i] = ids[order[i]];
+                rankedCategoryIds[i] = categoryIds[order[i]];
+                rankedScores[i] = scores[order[i]];
+            }
+            synchronized (this) {
+                ranking = Ranking.of(rankedIds, rankedCategoryIds, rankedScores);
+            }
+            postListCache.invalidateAll();
+            
+            int persisted = persist(ids, scores, count);
+            log.info("热度排行计算完成, 帖子数: {}, 写回: {}, 耗时: {}ms",
+                    count, persisted, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("热度排行计算失败: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 新帖子提交后按初始热度分插入排行
+     */
+    public void onPostAdded(Long postId, Long categoryId) {
+        if (!enabled) {
+            return;
+        }
+        double score = score(0, 0, 0, 0, null, null);
+        TransactionUtil.afterCommit(() -> {
+            synchronized (this) {
+                if (ranking != null) {
+                    ranking = ranking.insert(postId, categoryId, score);
+                }
+            }
+        });
+    }
+    
+    /**
+     * 帖子状态或分类变化提交后同步排行：不再发布的移出，已在排行中的按新分类归类，重新发布的按初始热度分插入
+     */
+    public void onPostChanged(Long postId, Long categoryId, Post.Status status) {
+        if (!enabled) {
+            return;
+        }
+        double score = score(0, 0, 0, 0, null, null);
+        TransactionUtil.afterCommit(() -> {
+            synchronized (this) {
+                if (ranking == null) {
+                    return;
+                }
+                int index = ranking.indexOf(postId);
+                if (status != Post.Status.PUBLISHED) {
+                    if (index >= 0) {
+                        ranking = ranking.remove(index);
+                    }
+                } else if (index >= 0) {
+                    ranking = ranking.move(index, categoryId);
+                } else {
+                    ranking = ranking.insert(postId, categoryId, score);
+                }
+            }
+        });
+    }
+    
+    /**
+     * 帖子删除提交后移出排行
+     */
+    public void onPostRemoved(Long postId) {
+        if (!enabled) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            synchronized (this) {
+                int index = ranking != null ? ranking.indexOf(postId) : -1;
+                if (index >= 0) {
+                    ranking = ranking.remove(index);
+                }
+            }
+        });
+    }
+    
+    /**
+     * 排行是否可用
+     */
+    public boolean isReady() {
+        return enabled && ranking != null;
+    }
+    
+    /**
+     * 取一页帖子ID，categoryId为空表示全站
+     */
+    public List<Long> page(Long categoryId, long offset, int size) {
+        long[] ids = ranking.idsOf(categoryId);
+        List<Long> result = new ArrayList<>(size);
+        for (long i = offset; i < ids.length && i < offset + size; i++) {
+            result.add(ids[(int) i]);
+        }
+        return result;
+    }
+    
+    /**
+     * 排行中的帖子数
+     */
+    public long size(Long categoryId) {
+        return ranking.idsOf(categoryId).length;
+    }
+    
+    private double score(long views, long likes, long favorites, long comments,
+                         LocalDateTime createdAt, LocalDateTime now) {
+        double points = views * viewWeight + likes * likeWeight + favorites * favoriteWeight
+                + comments * commentWeight + 1;
+        double ageHours = createdAt != null ? Math.max(0, Duration.between(createdAt, now).toMinutes() / 60.0) : 0;
+        return points / Math.pow(ageHours + 2, gravity);
+    }
+    
+    /**
+     * 写回变化超过1%的热度分
+     */
+    private int persist(long[] ids, double[] scores, int count) {
+        Map<Long, Double> current = new HashMap<>(count * 2);
+        List<Object[]> batch = new ArrayList<>();
+        int persisted = 0;
+        for (int i = 0; i < count; i++) {
+            current.put(ids[i], scores[i]);
+            Double last = persistedScores.get(ids[i]);
+            if (last == null || Math.abs(scores[i] - last) > Math.abs(last) * 0.01) {
+                batch.add(new Object[]{scores[i], ids[i]});
+            }
+            if (batch.size() == BATCH_SIZE || (i == count - 1 && !batch.isEmpty())) {
+                jdbcTemplate.batchUpdate(PERSIST_SQL, batch);
+                persisted += batch.size();
+                batch.clear();
+            }
+        }
+        persistedScores = current;
+        return persisted;
+    }
+    
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+    
+    /**
+     * 不可变的排行快照，数组按热度分降序
+     */
+    private static class Ranking {
+        final long[] ids;
+        final long[] categoryIds;
+        final double[] scores;
+        final Map<Long, long[]> byCategory;
+        
+        Ranking(long[] ids, long[] categoryIds, double[] scores, Map<Long, long[]> byCategory) {
+            this.ids = ids;
+            this.categoryIds = categoryIds;
+            this.scores = scores;
+            this.byCategory = byCategory;
+        }
+        
+        /**
+         * 插入一个帖子，生成新的快照
+         */
+        Ranking insert(long postId, long categoryId, double score) {
+            int position = 0;
+            while (position < scores.length && scores[position] >= score) {
+                position++;
+            }
+            return of(insertAt(ids, position, postId), insertAt(categoryIds, position, categoryId),
+                    insertAt(scores, position, score));
+        }
+        
+        int indexOf(long postId) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == postId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        
+        /**
+         * 移除指定位置的帖子，生成新的快照
+         */
+        Ranking remove(int index) {
+            return of(removeAt(ids, index), removeAt(categoryIds, index), removeAt(scores, index));
+        }
+        
+        /**
+         * 修改指定位置帖子的分类，位置和热度分不变
+         */
+        Ranking move(int index, long categoryId) {
+            if (categoryIds[index] == categoryId) {
+                return this;
+            }
+            long[] moved = categoryIds.clone();
+            moved[index] = categoryId;
+            return of(ids, moved, scores);
+        }
+        
+        static Ranking of(long[] ids, long[] categoryIds, double[] scores) {
+            Map<Long, Integer> counts = new HashMap<>();
+            for (long categoryId : categoryIds) {
+                counts.merge(categoryId, 1, Integer::sum);
+            }
+            Map<Long, long[]> byCategory = new HashMap<>();
+            Map<Long, Integer> filled = new HashMap<>();
+            for (int i = 0; i < ids.length; i++) {
+                long[] list = byCategory.computeIfAbsent(categoryIds[i], c -> new long[counts.get(c)]);
+                int index = filled.merge(categoryIds[i], 1, Integer::sum) - 1;
+                list[index] = ids[i];
+            }
+            return new Ranking(ids, categoryIds, scores, byCategory);
+        }
+        
+        private static long[] insertAt(long[] array, int position, long value) {
+            long[] result = new long[array.length + 1];
+            System.arraycopy(array, 0, result, 0, position);
+            result[position] = value;
+            System.arraycopy(array, position, result, position + 1, array.length - position);
+            return result;
+        }
+        
+        private static double[] insertAt(double[] array, int position, double value) {
+            double[] result = new double[array.length + 1];
+            System.arraycopy(array, 0, result, 0, position);
+            result[position] = value;
+            System.arraycopy(array, position, result, position + 1, array.length - position);
+            return result;
+        }
+        
+        private static long[] removeAt(long[] array, int position) {
+            long[] result = new long[array.length - 1];
+            System.arraycopy(array, 0, result, 0, position);
+            System.arraycopy(array, position + 1, result, position, array.length - position - 1);
+            return result;
+        }
+        
+        private static double[] removeAt(double[] array, int position) {
+            double[] result = new double[array.length - 1];
+            System.arraycopy(array, 0, result, 0, position);
+            System.arraycopy(array, position + 1, result, position, array.length - position - 1);
+            return result;
+        }
+        
+        long[] idsOf(Long categoryId) {
+            if (categoryId == null) {
+                return ids;
+            }
+            return byCategory.getOrDefault(categoryId, new long[0]);
+        }
+    }
+}
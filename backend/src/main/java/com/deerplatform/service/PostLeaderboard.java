@@ -0,0 +1,322 @@
+package com.deerplatform.service;
+
+import com.deerplatform.dto.PostSummaryDTO;
+import com.deerplatform.entity.Category;
+import com.deerplatform.entity.Post;
+import com.deerplatform.repository.CategoryRepository;
+import com.deerplatform.repository.PostRepository;
+import com.deerplatform.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分类排行榜（浏览量、点赞数）
+ *
+ * 每个分类每种指标维护一个前K名小顶堆，浏览量写回、点赞和帖子写操作时增量更新，
+ * 读取时直接返回已排好序的快照，不访问数据库。
+ * 堆容量是展示条数的两倍，留出余量应对数值下降；定时从数据库重新加载以修正偏差。
+ */
+@Slf4j
+@Component
+public class PostLeaderboard {
+    
+    public static final String METRIC_VIEWS = "views";
+    public static final String METRIC_LIKES = "likes";
+    
+    private static final int LOAD_BATCH_SIZE = 500;
+    
+    private final PostRepository postRepository;
+    private final CategoryRepository categoryRepository;
+    private final boolean enabled;
+    private final int size;
+    
+    private final Map<Long, Board> boards = new ConcurrentHashMap<>();
+    
+    public PostLeaderboard(PostRepository postRepository,
+                           CategoryRepository categoryRepository,
+                           @Value("${app.post.leaderboard.enabled:true}") boolean enabled,
+                           @Value("${app.post.leaderboard.size:10}") int size) {
+        this.postRepository = postRepository;
+        this.categoryRepository = categoryRepository;
+        this.enabled = enabled;
+        this.size = size;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+    
+    /**
+     * 定时从数据库重新加载各分类的前几名
+     */
+    @Scheduled(initialDelayString = "${app.post.leaderboard.reload-interval:600000}",
+               fixedDelayString = "${app.post.leaderboard.reload-interval:600000}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int capacity = size * 2;
+            for (Category category : categoryRepository.findAll()) {
+                Long categoryId = category.getId();
+                Board board = new Board(capacity);
+                for (PostSummaryDTO post : postRepository.findSummariesByCategoryIdAndStatus(categoryId,
+                        Post.Status.PUBLISHED, PageRequest.of(0, capacity, Sort.by(Sort.Direction.DESC, "viewCount")))) {
+                    board.offer(post);
+                }
+                for (PostSummaryDTO post : postRepository.findSummariesByCategoryIdAndStatus(categoryId,
+                        Post.Status.PUBLISHED, PageRequest.of(0, capacity, Sort.by(Sort.Direction.DESC, "likeCount")))) {
+                    board.offer(post);
+                }
+                board.publish(size);
+                boards.put(categoryId, board);
+            }
+            log.debug("分类排行榜已重新加载, 分类数: {}", boards.size());
+        } catch (Exception e) {
+            log.warn("分类排行榜加载失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取分类排行，不访问数据库
+     */
+    public List<PostSummaryDTO> getTop(Long categoryId, String metric, int limit) {
+        if (!METRIC_VIEWS.equals(metric) && !METRIC_LIKES.equals(metric)) {
+            throw new RuntimeException("不支持的排行类型: " + metric);
+        }
+        Board board = boards.get(categoryId);
+        if (board == null) {
+            return Collections.emptyList();
+        }
+        List<PostSummaryDTO> top = METRIC_VIEWS.equals(metric) ? board.topViews : board.topLikes;
+        return top.size() > limit ? top.subList(0, limit) : top;
+    }
+    
+    /**
+     * 浏览量写回数据库后更新排行
+     *
+     * 已在榜上的帖子直接加上增量；其余帖子只读取分类和浏览量，能够上榜时才读取列表信息。
+     */
+    public void onViewsFlushed(Map<Long, Long> deltas) {
+        if (!enabled || deltas.isEmpty()) {
+            return;
+        }
+        List<Long> offBoard = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            if (!addViews(entry.getKey(), entry.getValue())) {
+                offBoard.add(entry.getKey());
+            }
+        }
+        List<Long> candidates = new ArrayList<>();
+        for (int from = 0; from < offBoard.size(); from += LOAD_BATCH_SIZE) {
+            List<Long> chunk = offBoard.subList(from, Math.min(from + LOAD_BATCH_SIZE, offBoard.size()));
+            for (Object[] row : postRepository.findViewStatesByIdIn(chunk, Post.Status.PUBLISHED)) {
+                Board board = boards.get((Long) row[1]);
+                if (board == null) {
+                    candidates.add((Long) row[0]);
+                    continue;
+                }
+                synchronized (board) {
+                    if (board.views.accepts((Integer) row[2])) {
+                        candidates.add((Long) row[0]);
+                    }
+                }
+            }
+        }
+        for (int from = 0; from < candidates.size(); from += LOAD_BATCH_SIZE) {
+            List<Long> chunk = candidates.subList(from, Math.min(from + LOAD_BATCH_SIZE, candidates.size()));
+            for (PostSummaryDTO post : postRepository.findSummariesByIdIn(chunk)) {
+                offer(post);
+            }
+        }
+    }
+    
+    /**
+     * 点赞数变化，只有已在榜上或能够上榜时才读取帖子
+     */
+    public void onLikeChanged(Long postId, Long categoryId, int likeCount) {
+        if (!enabled) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            Board board = boards.get(categoryId);
+            if (board == null) {
+                return;
+            }
+            synchronized (board) {
+                if (board.likes.contains(postId)) {
+                    board.updateLikes(postId, likeCount);
+                    board.publish(size);
+                    return;
+                }
+                if (!board.likes.accepts(likeCount)) {
+                    return;
+                }
+            }
+            reloadPost(postId);
+        });
+    }
+    
+    /**
+     * 帖子修改、状态变化后重新读取
+     */
+    public void onPostChanged(Long postId) {
+        if (enabled) {
+            TransactionUtil.afterCommit(() -> reloadPost(postId));
+        }
+    }
+    
+    /**
+     * 帖子删除后移出排行
+     */
+    public void onPostRemoved(Long postId) {
+        if (enabled) {
+            TransactionUtil.afterCommit(() -> removeEverywhere(postId));
+        }
+    }
+    
+    /**
+     * 给榜上的帖子加上浏览量增量，帖子不在任何榜上时返回false
+     */
+    private boolean addViews(Long postId, long delta) {
+        boolean found = false;
+        for (Board board : boards.values()) {
+            synchronized (board) {
+                if (board.posts.containsKey(postId)) {
+                    board.addViews(postId, delta);
+                    board.publish(size);
+                    found = true;
+                }
+            }
+        }
+        return found;
+    }
+    
+    private void reloadPost(Long postId) {
+        removeEverywhere(postId);
+        for (PostSummaryDTO post : postRepository.findSummariesByIdIn(Collections.singletonList(postId))) {
+            offer(post);
+        }
+    }
+    
+    private void offer(PostSummaryDTO post) {
+        if (!Post.Status.PUBLISHED.name().equals(post.getStatus())) {
+            removeEverywhere(post.getId());
+            return;
+        }
+        Board board = boards.computeIfAbsent(post.getCategory().getId(), id -> new Board(size * 2));
+        synchronized (board) {
+            board.offer(post);
+            board.publish(size);
+        }
+    }
+    
+    private void removeEverywhere(Long postId) {
+        for (Board board : boards.values()) {
+            synchronized (board) {
+                if (board.posts.containsKey(postId)) {
+                    board.remove(postId);
+                    board.publish(size);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 单个分类的排行
+     */
+    private static class Board {
+        final TopKHeap views;
+        final TopKHeap likes;
+        // 堆中帖子的列表信息
+        final Map<Long, PostSummaryDTO> posts = new HashMap<>();
+        
+        // 已排好序的快照，替换而不修改
+        volatile List<PostSummaryDTO> topViews = Collections.emptyList();
+        volatile List<PostSummaryDTO> topLikes = Collections.emptyList();
+        
+        Board(int capacity) {
+            views = new TopKHeap(capacity);
+            likes = new TopKHeap(capacity);
+        }
+        
+        void offer(PostSummaryDTO post) {
+            long id = post.getId();
+            discardIfAbsent(views.offer(id, post.getViewCount()));
+            discardIfAbsent(likes.offer(id, post.getLikeCount()));
+            if (views.contains(id) || likes.contains(id)) {
+                posts.put(id, post);
+            }
+        }
+        
+        void addViews(long id, long delta) {
+            PostSummaryDTO copy = copyOf(posts.get(id));
+            copy.setViewCount((int) (copy.getViewCount() + delta));
+            posts.put(id, copy);
+            discardIfAbsent(views.offer(id, copy.getViewCount()));
+        }
+        
+        void updateLikes(long id, int likeCount) {
+            likes.offer(id, likeCount);
+            PostSummaryDTO copy = copyOf(posts.get(id));
+            copy.setLikeCount(likeCount);
+            posts.put(id, copy);
+        }
+        
+        void remove(long id) {
+            views.remove(id);
+            likes.remove(id);
+            posts.remove(id);
+        }
+        
+        void publish(int size) {
+            topViews = snapshot(views.sortedIds(), size);
+            topLikes = snapshot(likes.sortedIds(), size);
+        }
+        
+        private List<PostSummaryDTO> snapshot(long[] ids, int size) {
+            List<PostSummaryDTO> result = new ArrayList<>(Math.min(ids.length, size));
+            for (int i = 0; i < ids.length && i < size; i++) {
+                result.add(posts.get(ids[i]));
+            }
+            return Collections.unmodifiableList(result);
+        }
+        
+        private void discardIfAbsent(Long evicted) {
+            if (evicted != null && !views.contains(evicted) && !likes.contains(evicted)) {
+                posts.remove(evicted);
+            }
+        }
+        
+        private static PostSummaryDTO copyOf(PostSummaryDTO post) {
+            PostSummaryDTO copy = new PostSummaryDTO();
+            copy.setId(post.getId());
+            copy.setTitle(post.getTitle());
+            copy.setSummary(post.getSummary());
+            copy.setCoverImage(post.getCoverImage());
+            copy.setViewCount(post.getViewCount());
+            copy.setLikeCount(post.getLikeCount());
+            copy.setCommentCount(post.getCommentCount());
+            copy.setStatus(post.getStatus());
+            copy.setCreatedAt(post.getCreatedAt());
+            copy.setUpdatedAt(post.getUpdatedAt());
+            copy.setAuthor(post.getAuthor());
+            copy.setCategory(post.getCategory());
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.deerplatform.service;
+
+import com.deerplatform.dto.PostSummaryDTO;
+import com.deerplatform.util.TransactionUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 帖子列表前几页缓存
+ *
+ * 缓存键包含代号（generation），帖子发生任何写操作时递增代号，
+ * 旧代号下的条目不会再被命中，随后由容量和过期时间自然淘汰。
+ */
+@Component
+public class PostListCache {
+
+    private final Cache<Key, Page<PostSummaryDTO>> cache;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final int maxPages;
+
+    private final long ttlMillis;
+
+    public PostListCache(@Value("${app.post.cache.list-max-pages:3}") int maxPages,
+                         @Value("${app.post.cache.list-max-size:1000}") long maxSize,
+                         @Value("${app.post.cache.list-ttl:60}") long ttlSeconds) {
+        this.maxPages = maxPages;
+        this.ttlMillis = Math.max(1, ttlSeconds) * 1000;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 是否缓存该页
+     */
+    public boolean isCacheable(int page) {
+        return page >= 0 && page < maxPages;
+    }
+
+    /**
+     * 生成缓存键，应在查询数据库之前调用
+     */
+    public Key key(Long categoryId, String sortBy, int page, int size) {
+        return new Key(generation.get(), categoryId, sortBy, page, size);
+    }
+
+    /**
+     * 列表内容版本：代号加过期时间分段，用于生成ETag
+     * 浏览量、点赞数等不递增代号的变化，与列表缓存一样最多延迟一个过期时间
+     */
+    public String version() {
+        return generation.get() + "." + System.currentTimeMillis() / ttlMillis;
+    }
+
+    public Page<PostSummaryDTO> get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(Key key, Page<PostSummaryDTO> posts) {
+        cache.put(key, posts);
+    }
+
+    /**
+     * 递增代号使所有列表缓存失效，存在事务时在提交后再递增一次
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionUtil.afterCommit(generation::incrementAndGet);
+        }
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("generation", generation.get());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    @lombok.Value
+    public static class Key {
+        long generation;
+        Long categoryId;
+        String sortBy;
+        int page;
+        int size;
+    }
+}
@@ -1,41 +1,81 @@
 package com.deerplatform.service;
 
+import com.deerplatform.dto.CursorPage;
 import com.deerplatform.dto.PostCreateRequest;
 import com.deerplatform.dto.PostDTO;
+import com.deerplatform.dto.PostSummaryDTO;
+import com.deerplatform.dto.SuggestionDTO;
 import com.deerplatform.dto.PostUpdateRequest;
 import com.deerplatform.entity.Post;
 import com.deerplatform.entity.User;
 import com.deerplatform.entity.Category;
-import com.deerplatform.entity.UserFavorite;
 import com.deerplatform.entity.UserLike;
+import com.deerplatform.entity.PostContent;
+import com.deerplatform.repository.PostContentRepository;
 import com.deerplatform.repository.PostRepository;
 import com.deerplatform.repository.CategoryRepository;
 import com.deerplatform.repository.UserRepository;
 import com.deerplatform.repository.UserFavoriteRepository;
 import com.deerplatform.repository.UserLikeRepository;
+import com.deerplatform.search.IndexSearchBackend;
+import com.deerplatform.search.PostSearchIndexer;
+import com.deerplatform.search.PostSuggester;
+import com.deerplatform.search.SuggestTrie;
+import com.deerplatform.search.SearchBackendRouter;
+import com.deerplatform.util.CursorUtil;
+import com.deerplatform.util.HtmlSummaryUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class PostService {
     
+    // 摘要最多包含的字符数
+    private static final int SUMMARY_LENGTH = 200;
+    // 游标分页每页最多条数
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    
     private final PostRepository postRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
     private final UserFavoriteRepository userFavoriteRepository;
     private final UserLikeRepository userLikeRepository;
+    private final PostViewCountBuffer postViewCountBuffer;
+    private final PostDetailCache postDetailCache;
+    private final PostListCache postListCache;
+    private final PostCountCache postCountCache;
+    private final PostSearchIndexer postSearchIndexer;
+    private final SearchBackendRouter searchBackendRouter;
+    private final IndexSearchBackend indexSearchBackend;
+    private final PostSuggester postSuggester;
+    private final PostHotRanking postHotRanking;
+    private final PostLeaderboard postLeaderboard;
+    private final PostCounterShards postCounterShards;
+    private final PostEngagementBitmaps postEngagementBitmaps;
+    private final PostContentRepository postContentRepository;
+    private final PostContentSplitMigrator postContentSplitMigrator;
+    private final PostContentCompression postContentCompression;
     
     /**
      * 创建帖子
@@ -59,6 +99,18 @@ public class PostService {
         post.setUpdatedAt(LocalDateTime.now());
         
         Post savedPost = postRepository.save(post);
+        // 正文以帖子ID为主键写入post_content
+        PostContent body = new PostContent();
+        body.setPostId(savedPost.getId());
+        body.setContent(savedPost.getPendingContent());
+        savedPost.setBody(postContentRepository.save(body));
+        savedPost.setPendingContent(null);
+        postListCache.invalidateAll();
+        postCountCache.onPostAdded(savedPost.getStatus(), savedPost.getCategoryId(), savedPost.getAuthorId());
+        postSearchIndexer.onPostSaved(savedPost);
+        postSuggester.onPostSaved(savedPost);
+        postHotRanking.onPostAdded(savedPost.getId(), savedPost.getCategoryId());
+        postLeaderboard.onPostChanged(savedPost.getId());
         return PostDTO.fromEntity(savedPost);
     }
     
@@ -66,15 +118,18 @@ public class PostService {
      * 更新帖子
      */
     public PostDTO updatePost(Long postId, PostUpdateRequest request, User currentUser) {
-        Post post = postRepository.findById(postId)
+        postContentSplitMigrator.ensureMigrated(postId);
+        Post post = postRepository.findWithAuthorAndCategoryById(postId)
                 .orElseThrow(() -> new RuntimeException("帖子不存在"));
         
         // 检查权限：只有作者或管理员可以编辑
-        if (!post.getAuthor().getId().equals(currentUser.getId()) && 
+        if (!post.getAuthorId().equals(currentUser.getId()) && 
             !currentUser.getRole().equals(User.Role.ADMIN)) {  // 修改：UserRole.ADMIN → Role.ADMIN
             throw new RuntimeException("没有权限编辑此帖子");
         }
         
+        Long oldCategoryId = post.getCategoryId();
+        
         // 更新分类（如果提供）
         if (request.getCategoryId() != null) {
             Category category = categoryRepository.findById(request.getCategoryId())
@@ -94,6 +149,18 @@ public class PostService {
         post.setUpdatedAt(LocalDateTime.now());
         
         Post savedPost = postRepository.save(post);
+        postDetailCache.invalidate(postId);
+        postListCache.invalidateAll();
+        postCountCache.onPostMoved(savedPost.getStatus(), oldCategoryId,
+                savedPost.getStatus(), savedPost.getCategoryId(), savedPost.getAuthorId());
+        if (request.getTitle() != null || request.getContent() != null) {
+            postSearchIndexer.onPostSaved(savedPost);
+        }
+        postSuggester.onPostSaved(savedPost);
+        postLeaderboard.onPostChanged(postId);
+        if (!oldCategoryId.equals(savedPost.getCategoryId())) {
+            postHotRanking.onPostChanged(postId, savedPost.getCategoryId(), savedPost.getStatus());
+        }
         return PostDTO.fromEntity(savedPost);
     }
     
@@ -105,12 +172,22 @@ public class PostService {
                 .orElseThrow(() -> new RuntimeException("帖子不存在"));
         
         // 检查权限：只有作者或管理员可以删除
-        if (!post.getAuthor().getId().equals(currentUser.getId()) && 
+        if (!post.getAuthorId().equals(currentUser.getId()) && 
             !currentUser.getRole().equals(User.Role.ADMIN)) {  // 修改：UserRole.ADMIN → Role.ADMIN
             throw new RuntimeException("没有权限删除此帖子");
         }
         
+        // post_content由外键级联删除
         postRepository.delete(post);
+        postViewCountBuffer.discard(postId);
+        postDetailCache.invalidate(postId);
+        postListCache.invalidateAll();
+        postCountCache.onPostRemoved(post.getStatus(), post.getCategoryId(), post.getAuthorId());
+        postSearchIndexer.onPostRemoved(postId);
+        postSuggester.onPostRemoved(postId);
+        postLeaderboard.onPostRemoved(postId);
+        postEngagementBitmaps.onPostRemoved(postId);
+        postHotRanking.onPostRemoved(postId);
     }
     
     /**
@@ -118,60 +195,199 @@ public class PostService {
      */
     @Transactional(readOnly = true)
     public PostDTO getPostById(Long postId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("帖子不存在"));
+        PostDTO dto = postDetailCache.get(postId);
+        if (dto == null) {
+            long version = postDetailCache.currentVersion();
+            // 迁移完成前正文可能还在posts.content中，由定时任务迁移，读请求不写库
+            String legacyContent = postContentSplitMigrator.findLegacyContent(postId);
+            Post post = postRepository.findWithAuthorAndCategoryById(postId)
+                    .orElseThrow(() -> new RuntimeException("帖子不存在"));
+            dto = legacyContent != null ? PostDTO.fromEntity(post, legacyContent) : PostDTO.fromEntity(post);
+            // 加上计数分片中尚未合并的点赞和收藏
+            if (postCounterShards.hasPending(postId)) {
+                dto.setLikeCount((int) (dto.getLikeCount() + postCounterShards.getPending(postId, PostCounterShards.Metric.LIKE)));
+                dto.setFavoriteCount((int) (dto.getFavoriteCount()
+                        + postCounterShards.getPending(postId, PostCounterShards.Metric.FAVORITE)));
+            }
+            postDetailCache.put(postId, dto, version);
+        }
         
-        // 增加浏览量
-        post.setViewCount(post.getViewCount() + 1);
-        postRepository.save(post);
+        // 增加浏览量：只写入内存缓冲，由定时任务批量写回
+        postViewCountBuffer.record(postId);
         
-        return PostDTO.fromEntity(post);
+        dto.setViewCount((int) (dto.getViewCount() + postViewCountBuffer.getPending(postId)));
+        return dto;
+    }
+    
+    /**
+     * 缓存中的帖子详情，只读内存不访问数据库，不记录浏览；未缓存时返回null
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PostDTO getCachedPost(Long postId) {
+        return postDetailCache.get(postId);
+    }
+    
+    /**
+     * 记录一次浏览（详情未变化、不再读取时使用）
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void recordView(Long postId) {
+        postViewCountBuffer.record(postId);
+    }
+    
+    /**
+     * 帖子列表内容版本，只读内存不访问数据库
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getPostListVersion() {
+        return postListCache.version();
     }
     
     /**
      * 获取帖子列表
      */
     @Transactional(readOnly = true)
-    public Page<PostDTO> getPosts(Long categoryId, String sortBy, int page, int size) {
+    public Page<PostSummaryDTO> getPosts(Long categoryId, String sortBy, int page, int size) {
+        // 前几页优先读取列表缓存
+        PostListCache.Key cacheKey = null;
+        if (postListCache.isCacheable(page)) {
+            cacheKey = postListCache.key(categoryId, sortBy, page, size);
+            Page<PostSummaryDTO> cached = postListCache.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
         Pageable pageable = createPageable(sortBy, page, size);
+        if (categoryId != null && !categoryRepository.existsById(categoryId)) {
+            throw new RuntimeException("分类不存在");
+        }
         
-        Page<Post> posts;
-        if (categoryId != null) {
-            Category category = categoryRepository.findById(categoryId)
-                    .orElseThrow(() -> new RuntimeException("分类不存在"));
-            posts = postRepository.findByCategoryAndStatus(category, Post.Status.PUBLISHED, pageable);  // 修改这里
+        Page<PostSummaryDTO> result;
+        if ("popular".equals(sortBy) && postHotRanking.isReady()) {
+            // 热门排序直接按热度排行取页
+            result = getHotPage(categoryId, PageRequest.of(page, size));
         } else {
-            posts = postRepository.findByStatus(Post.Status.PUBLISHED, pageable);  // 修改这里
+            // 使用Slice查询，总数取自计数缓存，避免每页执行COUNT(*)
+            Slice<PostSummaryDTO> posts = categoryId != null
+                    ? postRepository.findSummariesByCategoryIdAndStatus(categoryId, Post.Status.PUBLISHED, pageable)
+                    : postRepository.findSummariesByStatus(Post.Status.PUBLISHED, pageable);
+            result = postCountCache.toPage(posts, Post.Status.PUBLISHED, categoryId, null);
+        }
+        if (cacheKey != null) {
+            postListCache.put(cacheKey, result);
+        }
+        return result;
+    }
+    
+    /**
+     * 游标分页获取帖子列表
+     *
+     * 游标记录上一页最后一条的排序值和ID，翻页只需一次索引范围扫描，与页码深度无关。
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostSummaryDTO> getPostsByCursor(Long categoryId, String sortBy, String cursor, int size) {
+        if (size < 1) {
+            throw new RuntimeException("每页条数必须大于0");
+        }
+        size = Math.min(size, MAX_CURSOR_PAGE_SIZE);
+        // 热门排序与/posts一致按热度分，使用定时写回的hot_score列
+        String sortProperty = "popular".equals(sortBy) ? "hotScore" : resolveSortProperty(sortBy);
+        boolean ascending = "oldest".equals(sortBy);
+        String cursorKey = ascending ? "oldest" : sortProperty;
+        
+        Comparable<?> lastValue = null;
+        Long lastId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = CursorUtil.decode(cursor, 3);
+            if (!parts[0].equals(cursorKey)) {
+                throw new RuntimeException("分页游标与排序方式不匹配");
+            }
+            try {
+                lastValue = parseSortValue(sortProperty, parts[1]);
+                lastId = Long.valueOf(parts[2]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("无效的分页游标");
+            }
+        }
+        
+        List<PostSummaryDTO> posts = postRepository.findSummariesBySeek(Post.Status.PUBLISHED, categoryId,
+                sortProperty, ascending, lastValue, lastId, size + 1);
+        
+        boolean hasNext = posts.size() > size;
+        if (hasNext) {
+            posts = posts.subList(0, size);
         }
         
-        return posts.map(PostDTO::fromEntity);
+        String nextCursor = null;
+        if (hasNext) {
+            PostSummaryDTO last = posts.get(posts.size() - 1);
+            Object lastSortValue = "hotScore".equals(sortProperty)
+                    ? postRepository.findHotScoreById(last.getId())
+                    : getSortValue(last, sortProperty);
+            nextCursor = CursorUtil.encode(cursorKey, lastSortValue, last.getId());
+        }
+        
+        return new CursorPage<>(posts, nextCursor, hasNext, size);
     }
     
     /**
      * 搜索帖子
      */
     @Transactional(readOnly = true)
-    public Page<PostDTO> searchPosts(String keyword, int page, int size) {
+    public Page<PostSummaryDTO> searchPosts(String keyword, int page, int size) {
+        return searchBackendRouter.search(keyword, PageRequest.of(page, size));
+    }
+    
+    /**
+     * 搜索帖子（不统计总数，只返回是否有下一页）
+     */
+    @Transactional(readOnly = true)
+    public Slice<PostSummaryDTO> searchPostSlice(String keyword, int page, int size) {
+        return searchBackendRouter.searchSlice(keyword, PageRequest.of(page, size));
+    }
+    
+    /**
+     * 管理后台搜索帖子，status为null时不限状态
+     *
+     * 已发布帖子与前台相同；其他状态优先查内存索引，索引不可用时回退到数据库查询，
+     * 正文压缩存储时只匹配标题和摘要。
+     */
+    @Transactional(readOnly = true)
+    public Page<PostSummaryDTO> searchPostsForAdmin(String keyword, Post.Status status, int page, int size) {
+        if (status == Post.Status.PUBLISHED) {
+            return searchPosts(keyword, page, size);
+        }
+        Page<PostSummaryDTO> result = indexSearchBackend.search(keyword, status, PageRequest.of(page, size));
+        if (result != null) {
+            return result;
+        }
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Post> posts = postRepository.searchByKeyword(keyword, Post.Status.PUBLISHED, pageable);  // 修改这里
-        return posts.map(PostDTO::fromEntity);
+        if (postContentCompression.isEnabled()) {
+            return status != null
+                    ? postRepository.searchSummariesByTitleOrSummary(keyword, status, pageable)
+                    : postRepository.searchAllSummariesByTitleOrSummary(keyword, pageable);
+        }
+        return status != null
+                ? postRepository.searchSummariesByKeyword(keyword, status, pageable)
+                : postRepository.searchAllSummariesByKeyword(keyword, pageable);
     }
     
     /**
      * 获取用户的帖子
      */
     @Transactional(readOnly = true)
-    public Page<PostDTO> getUserPosts(User user, int page, int size) {
+    public Page<PostSummaryDTO> getUserPosts(User user, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Post> posts = postRepository.findByAuthor(user, pageable);
-        return posts.map(PostDTO::fromEntity);
+        Slice<PostSummaryDTO> posts = postRepository.findSummariesByAuthorId(user.getId(), pageable);
+        return postCountCache.toPage(posts, null, null, user.getId());
     }
     
     /**
      * 根据用户名获取用户的帖子
      */
     @Transactional(readOnly = true)
-    public Page<PostDTO> getUserPosts(String username, int page, int size) {
+    public Page<PostSummaryDTO> getUserPosts(String username, int page, int size) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("用户不存在"));
         return getUserPosts(user, page, size);
@@ -181,24 +397,50 @@ public class PostService {
      * 获取用户收藏的帖子
      */
     @Transactional(readOnly = true)
-    public Page<PostDTO> getUserCollections(String username, int page, int size) {
+    public Page<PostSummaryDTO> getUserCollections(String username, int page, int size) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("用户不存在"));
         
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<UserFavorite> favorites = userFavoriteRepository.findByUserIdOrderByCreatedAtDesc(user.getId(), pageable);
-        
-        return favorites.map(favorite -> PostDTO.fromEntity(favorite.getPost()));
+        // 查询语句中已按收藏时间倒序
+        Pageable pageable = PageRequest.of(page, size);
+        return userFavoriteRepository.findPostSummariesByUserId(user.getId(), pageable);
     }
     
     /**
      * 获取热门帖子
      */
     @Transactional(readOnly = true)
-    public Page<PostDTO> getPopularPosts(int page, int size) {
+    public Page<PostSummaryDTO> getPopularPosts(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Post> posts = postRepository.findPopularPosts(Post.Status.PUBLISHED, pageable);  // 修改这里
-        return posts.map(PostDTO::fromEntity);
+        if (postHotRanking.isReady()) {
+            return getHotPage(null, pageable);
+        }
+        // 热度排行尚未就绪时按浏览量排序
+        Slice<PostSummaryDTO> posts = postRepository.findPopularSummaries(Post.Status.PUBLISHED, pageable);
+        return postCountCache.toPage(posts, Post.Status.PUBLISHED, null, null);
+    }
+    
+    /**
+     * 从热度排行取一页帖子
+     */
+    private Page<PostSummaryDTO> getHotPage(Long categoryId, Pageable pageable) {
+        List<Long> ids = postHotRanking.page(categoryId, pageable.getOffset(), pageable.getPageSize());
+        List<PostSummaryDTO> posts = postRepository.findSummariesInOrder(ids);
+        // 下架、删除和分类变化已同步到排行，这里只防止漏网的帖子（如其他实例的修改）
+        posts.removeIf(post -> !Post.Status.PUBLISHED.name().equals(post.getStatus()));
+        return new PageImpl<>(posts, pageable, postHotRanking.size(categoryId));
+    }
+    
+    /**
+     * 搜索建议（标题和标签前缀匹配），只读内存不访问数据库
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        List<SuggestionDTO> suggestions = new ArrayList<>();
+        for (SuggestTrie.Entry entry : postSuggester.suggest(prefix, limit)) {
+            suggestions.add(new SuggestionDTO(entry.getText(), entry.getType(), entry.getPostId()));
+        }
+        return suggestions;
     }
     
     /**
@@ -209,97 +451,158 @@ public class PostService {
             return "";
         }
         
-        // 移除HTML标签
-        String plainText = content.replaceAll("<[^>]*>", "");
-        
-        // 截取前200个字符作为摘要
-        if (plainText.length() <= 200) {
-            return plainText;
-        }
-        
-        return plainText.substring(0, 200) + "...";
+        // 单次扫描去除HTML标签，得到前200个字符后即停止
+        return HtmlSummaryUtil.summarize(content, SUMMARY_LENGTH);
     }
     
     /**
      * 创建分页对象
      */
     private Pageable createPageable(String sortBy, int page, int size) {
-        Sort sort;
+        Sort.Direction direction = "oldest".equals(sortBy) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return PageRequest.of(page, size, Sort.by(direction, resolveSortProperty(sortBy)));
+    }
+    
+    /**
+     * 排序方式对应的实体属性
+     */
+    private String resolveSortProperty(String sortBy) {
         switch (sortBy) {
             case "popular":
-                sort = Sort.by(Sort.Direction.DESC, "viewCount");
-                break;
+                return "viewCount";
             case "likes":
-                sort = Sort.by(Sort.Direction.DESC, "likeCount");
-                break;
+                return "likeCount";
             case "comments":
-                sort = Sort.by(Sort.Direction.DESC, "commentCount");
-                break;
-            case "oldest":
-                sort = Sort.by(Sort.Direction.ASC, "createdAt");
-                break;
-            default: // "latest"
-                sort = Sort.by(Sort.Direction.DESC, "createdAt");
-                break;
+                return "commentCount";
+            default: // "latest", "oldest"
+                return "createdAt";
         }
-        
-        return PageRequest.of(page, size, sort);
+    }
+    
+    /**
+     * 读取帖子的排序字段值
+     */
+    private Comparable<?> getSortValue(PostSummaryDTO post, String sortProperty) {
+        switch (sortProperty) {
+            case "viewCount":
+                return post.getViewCount();
+            case "likeCount":
+                return post.getLikeCount();
+            case "commentCount":
+                return post.getCommentCount();
+            default:
+                return post.getCreatedAt();
+        }
+    }
+    
+    /**
+     * 解析游标中的排序字段值
+     */
+    private Comparable<?> parseSortValue(String sortProperty, String value) {
+        if ("createdAt".equals(sortProperty)) {
+            return LocalDateTime.parse(value);
+        }
+        if ("hotScore".equals(sortProperty)) {
+            return Double.valueOf(value);
+        }
+        return Integer.valueOf(value);
     }
     
     /**
      * 切换帖子点赞状态
      */
     public boolean toggleLike(Long postId, Long userId) {
-        // 检查帖子是否存在
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("帖子不存在"));
-        
-        Optional<UserLike> existingLike = userLikeRepository.findByUserIdAndTargetIdAndTargetType(
-                userId, postId, UserLike.TargetType.POST);
+        // 插入被唯一键忽略说明已点赞，改为取消点赞
+        if (userLikeRepository.insertIgnore(userId, postId, UserLike.TargetType.POST.name()) > 0) {
+            applyLikeChange(postId, userId, 1);
+            return true;
+        }
+        unlikePost(postId, userId);
+        return false;
+    }
+    
+    /**
+     * 点赞帖子，重复点赞不改变计数，返回最新点赞数
+     */
+    public int likePost(Long postId, Long userId) {
+        int inserted = userLikeRepository.insertIgnore(userId, postId, UserLike.TargetType.POST.name());
+        return applyLikeChange(postId, userId, inserted);
+    }
+    
+    /**
+     * 取消点赞，未点赞时不改变计数，返回最新点赞数
+     */
+    public int unlikePost(Long postId, Long userId) {
+        int deleted = userLikeRepository.deleteLike(userId, postId, UserLike.TargetType.POST);
+        return applyLikeChange(postId, userId, -deleted);
+    }
+    
+    /**
+     * 点赞记录实际发生变化时原子调整计数，并同步建议词、排行和详情缓存
+     */
+    private int applyLikeChange(Long postId, Long userId, int delta) {
+        // 热点帖子写入计数分片，其余帖子直接更新posts表
+        if (delta != 0 && !postCounterShards.add(postId, PostCounterShards.Metric.LIKE, delta)
+                && postRepository.adjustLikeCount(postId, delta) == 0 && delta > 0) {
+            // 帖子不存在，抛出异常回滚刚插入的点赞记录
+            throw new RuntimeException("帖子不存在");
+        }
         
-        if (existingLike.isPresent()) {
-            // 已点赞，取消点赞
-            userLikeRepository.deleteByUserIdAndTargetIdAndTargetType(
-                    userId, postId, UserLike.TargetType.POST);
-            post.setLikeCount(Math.max(0, post.getLikeCount() - 1));
-            postRepository.save(post);
-            return false;
+        // 分类和点赞数优先取自详情缓存（已含提交的分片增量），未缓存时才读取帖子
+        Long categoryId;
+        int likeCount;
+        PostDTO cached = postDetailCache.get(postId);
+        if (cached != null && cached.getCategory() != null) {
+            categoryId = cached.getCategory().getId();
+            likeCount = Math.max(0, cached.getLikeCount() + delta);
         } else {
-            // 未点赞，添加点赞
-            UserLike userLike = new UserLike();
-            userLike.setUserId(userId);
-            userLike.setTargetId(postId);
-            userLike.setTargetType(UserLike.TargetType.POST);
-            userLikeRepository.save(userLike);
-            
-            post.setLikeCount(post.getLikeCount() + 1);
-            postRepository.save(post);
-            return true;
+            List<Object[]> rows = postRepository.findLikeStateById(postId);
+            if (rows.isEmpty()) {
+                throw new RuntimeException("帖子不存在");
+            }
+            categoryId = (Long) rows.get(0)[0];
+            likeCount = (int) ((Integer) rows.get(0)[1] + postCounterShards.getPending(postId, PostCounterShards.Metric.LIKE));
+        }
+        if (delta != 0) {
+            postSuggester.onLikesChanged(postId, delta);
+            postLeaderboard.onLikeChanged(postId, categoryId, likeCount);
+            postDetailCache.addLikeCount(postId, delta);
+            postEngagementBitmaps.onLikeChanged(postId, userId, delta > 0);
         }
+        return likeCount;
     }
     
     /**
      * 切换帖子收藏状态
      */
     public boolean toggleFavorite(Long postId, Long userId) {
-        // 检查帖子是否存在
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("帖子不存在"));
-        
-        Optional<UserFavorite> existingFavorite = userFavoriteRepository.findByUserIdAndPostId(userId, postId);
-        
-        if (existingFavorite.isPresent()) {
-            // 已收藏，取消收藏
-            userFavoriteRepository.deleteByUserIdAndPostId(userId, postId);
-            return false;
-        } else {
-            // 未收藏，添加收藏
-            UserFavorite userFavorite = new UserFavorite();
-            userFavorite.setUserId(userId);
-            userFavorite.setPostId(postId);
-            userFavoriteRepository.save(userFavorite);
+        // 插入被唯一键忽略说明已收藏，改为取消收藏
+        if (userFavoriteRepository.insertIgnore(userId, postId) > 0) {
+            applyFavoriteChange(postId, userId, 1);
             return true;
         }
+        int deleted = userFavoriteRepository.deleteFavorite(userId, postId);
+        if (deleted == 0 && !postRepository.existsById(postId)) {
+            throw new RuntimeException("帖子不存在");
+        }
+        applyFavoriteChange(postId, userId, -deleted);
+        return false;
+    }
+    
+    /**
+     * 收藏记录实际发生变化时在同一事务中原子调整收藏数
+     */
+    private void applyFavoriteChange(Long postId, Long userId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (!postCounterShards.add(postId, PostCounterShards.Metric.FAVORITE, delta)
+                && postRepository.adjustFavoriteCount(postId, delta) == 0 && delta > 0) {
+            // 帖子不存在，抛出异常回滚刚插入的收藏记录
+            throw new RuntimeException("帖子不存在");
+        }
+        postDetailCache.addFavoriteCount(postId, delta);
+        postEngagementBitmaps.onFavoriteChanged(postId, userId, delta > 0);
     }
     
     /**
@@ -307,15 +610,17 @@ public class PostService {
      */
     @Transactional(readOnly = true)
     public Map<String, Object> getPostStatus(Long postId, Long userId) {
+        // 优先由内存位图回答
+        Map<String, Object> cached = postEngagementBitmaps.getStatus(postId, userId);
+        if (cached != null) {
+            return cached;
+        }
+        
         Map<String, Object> status = new HashMap<>();
         
-        // 获取点赞数量
-        long likeCount = userLikeRepository.countByTargetIdAndTargetType(postId, UserLike.TargetType.POST);
-        status.put("likeCount", likeCount);
-        
-        // 获取收藏数量
-        long favoriteCount = userFavoriteRepository.countByPostId(postId);
-        status.put("favoriteCount", favoriteCount);
+        // 点赞数和收藏数直接读取帖子上的计数列
+        List<Object[]> counts = postRepository.findCountsByIdIn(Collections.singletonList(postId));
+        putCounts(status, postId, counts.isEmpty() ? null : counts.get(0));
         
         if (userId != null) {
             // 检查当前用户是否已点赞
@@ -333,4 +638,60 @@ public class PostService {
         
         return status;
     }
-}
\ No newline at end of file
+    
+    /**
+     * 批量获取帖子的点赞和收藏状态
+     *
+     * 已加载位图的帖子直接由内存回答，其余帖子用固定条数的查询，与帖子数量无关。
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Map<String, Object>> getPostStatuses(List<Long> postIds, Long userId) {
+        Map<Long, Map<String, Object>> result = new LinkedHashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long postId : postIds) {
+            Map<String, Object> cached = postEngagementBitmaps.getCachedStatus(postId, userId);
+            if (cached != null) {
+                result.put(postId, cached);
+            } else {
+                missing.add(postId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        
+        Map<Long, Object[]> counts = new HashMap<>();
+        for (Object[] row : postRepository.findCountsByIdIn(missing)) {
+            counts.put((Long) row[0], row);
+        }
+        Set<Long> liked = new HashSet<>();
+        Set<Long> favorited = new HashSet<>();
+        if (userId != null) {
+            liked.addAll(userLikeRepository.findLikedTargetIds(userId, missing, UserLike.TargetType.POST));
+            favorited.addAll(userFavoriteRepository.findFavoritedPostIds(userId, missing));
+        }
+        
+        for (Long postId : missing) {
+            Map<String, Object> status = new HashMap<>();
+            putCounts(status, postId, counts.get(postId));
+            status.put("isLiked", liked.contains(postId));
+            status.put("isFavorited", favorited.contains(postId));
+            result.put(postId, status);
+        }
+        return result;
+    }
+    
+    /**
+     * 写入点赞数和收藏数，加上计数分片中尚未合并的增量
+     */
+    private void putCounts(Map<String, Object> status, Long postId, Object[] row) {
+        long likeCount = row != null ? (Integer) row[1] : 0;
+        long favoriteCount = row != null ? (Integer) row[2] : 0;
+        if (postCounterShards.hasPending(postId)) {
+            likeCount += postCounterShards.getPending(postId, PostCounterShards.Metric.LIKE);
+            favoriteCount += postCounterShards.getPending(postId, PostCounterShards.Metric.FAVORITE);
+        }
+        status.put("likeCount", likeCount);
+        status.put("favoriteCount", favoriteCount);
+    }
+}
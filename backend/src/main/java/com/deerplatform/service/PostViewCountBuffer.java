@@ -0,0 +1,142 @@
+package com.deerplatform.service;
+
+import com.deerplatform.search.PostSuggester;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 帖子浏览量写缓冲
+ *
+ * 详情页只在内存中累加浏览量，由定时任务批量执行
+ * UPDATE posts SET view_count = view_count + ? 写回数据库。
+ */
+@Slf4j
+@Component
+public class PostViewCountBuffer {
+
+    private static final String FLUSH_SQL = "UPDATE posts SET view_count = view_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PostDetailCache postDetailCache;
+    private final PostSuggester postSuggester;
+    private final PostLeaderboard postLeaderboard;
+
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public PostViewCountBuffer(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               PostDetailCache postDetailCache,
+                               PostSuggester postSuggester,
+                               PostLeaderboard postLeaderboard) {
+        this.jdbcTemplate = jdbcTemplate;
+        // 整批在一个事务中写回，失败时全部回滚，才能把增量原样还回去
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.postDetailCache = postDetailCache;
+        this.postSuggester = postSuggester;
+        this.postLeaderboard = postLeaderboard;
+    }
+
+    /**
+     * 记录一次浏览
+     */
+    public void record(Long postId) {
+        // 在映射的锁内累加，与flush移出空计数器互斥，不会加到已移出的计数器上
+        pending.compute(postId, (id, adder) -> {
+            if (adder == null) {
+                adder = new LongAdder();
+            }
+            adder.increment();
+            return adder;
+        });
+    }
+
+    /**
+     * 获取尚未写回数据库的浏览量
+     */
+    public long getPending(Long postId) {
+        LongAdder adder = pending.get(postId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * 丢弃已删除帖子的缓冲
+     */
+    public void discard(Long postId) {
+        pending.remove(postId);
+    }
+
+    /**
+     * 定时批量写回浏览量
+     */
+    @Scheduled(fixedDelayString = "${app.post.view-count-flush-interval:5000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        List<LongAdder> adders = new ArrayList<>();
+
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            LongAdder adder = entry.getValue();
+            long delta = adder.sum();
+            if (delta == 0) {
+                continue;
+            }
+            // 扣减已取走的增量而不是清零，避免丢失并发写入
+            adder.add(-delta);
+            batch.add(new Object[]{delta, entry.getKey()});
+            adders.add(adder);
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch));
+        } catch (Exception e) {
+            // 事务已回滚，把增量还回去，等待下次重试
+            for (int i = 0; i < batch.size(); i++) {
+                adders.get(i).add((Long) batch.get(i)[0]);
+            }
+            log.warn("浏览量写回失败, 将在下次重试: {}", e.getMessage());
+            return;
+        }
+        log.debug("浏览量写回完成, 帖子数: {}", batch.size());
+
+        // 已写回的计数器若没有新的浏览则移出，避免map随浏览过的帖子无限增长
+        for (Object[] args : batch) {
+            pending.computeIfPresent((Long) args[1], (id, adder) -> adder.sum() == 0 ? null : adder);
+        }
+
+        // 数据库已更新，后续通知失败不能再把增量还回去，否则下次会重复写入
+        try {
+            for (Object[] args : batch) {
+                postDetailCache.addViewCount((Long) args[1], (Long) args[0]);
+                postSuggester.onViewsAdded((Long) args[1], (Long) args[0]);
+            }
+            Map<Long, Long> deltas = new HashMap<>(batch.size() * 2);
+            for (Object[] args : batch) {
+                deltas.put((Long) args[1], (Long) args[0]);
+            }
+            postLeaderboard.onViewsFlushed(deltas);
+        } catch (Exception e) {
+            log.warn("浏览量写回后更新缓存失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,155 @@
+package com.deerplatform.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 容量固定的前K名小顶堆
+ *
+ * 堆顶是当前最小值，新值超过堆顶才能进入；记录每个ID在堆中的下标，
+ * 已在堆中的ID可以直接更新数值。非线程安全，由调用方加锁。
+ */
+public class TopKHeap {
+    
+    private final int capacity;
+    private final long[] ids;
+    private final long[] values;
+    private final Map<Long, Integer> positions = new HashMap<>();
+    private int size;
+    
+    public TopKHeap(int capacity) {
+        this.capacity = capacity;
+        this.ids = new long[capacity];
+        this.values = new long[capacity];
+    }
+    
+    /**
+     * 插入或更新，返回被挤出堆的ID，没有则返回null
+     */
+    public Long offer(long id, long value) {
+        Integer position = positions.get(id);
+        if (position != null) {
+            long old = values[position];
+            values[position] = value;
+            if (value < old) {
+                siftUp(position);
+            } else {
+                siftDown(position);
+            }
+            return null;
+        }
+        if (size < capacity) {
+            ids[size] = id;
+            values[size] = value;
+            positions.put(id, size);
+            siftUp(size++);
+            return null;
+        }
+        if (value <= values[0]) {
+            return null;
+        }
+        long evicted = ids[0];
+        positions.remove(evicted);
+        ids[0] = id;
+        values[0] = value;
+        positions.put(id, 0);
+        siftDown(0);
+        return evicted;
+    }
+    
+    /**
+     * 该数值能否进入堆（堆未满或大于堆顶）
+     */
+    public boolean accepts(long value) {
+        return size < capacity || value > values[0];
+    }
+    
+    public boolean contains(long id) {
+        return positions.containsKey(id);
+    }
+    
+    public long valueOf(long id) {
+        return values[positions.get(id)];
+    }
+    
+    public void remove(long id) {
+        Integer position = positions.remove(id);
+        if (position == null) {
+            return;
+        }
+        size--;
+        if (position == size) {
+            return;
+        }
+        ids[position] = ids[size];
+        values[position] = values[size];
+        positions.put(ids[position], position);
+        siftUp(position);
+        siftDown(positions.get(ids[position]));
+    }
+    
+    /**
+     * 按数值降序返回全部ID
+     */
+    public long[] sortedIds() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int result = Long.compare(values[b], values[a]);
+            return result != 0 ? result : Long.compare(ids[b], ids[a]);
+        });
+        long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = ids[order[i]];
+        }
+        return result;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (values[parent] <= values[index]) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+    
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = index * 2 + 1;
+            int right = left + 1;
+            if (left < size && values[left] < values[smallest]) {
+                smallest = left;
+            }
+            if (right < size && values[right] < values[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+    
+    private void swap(int a, int b) {
+        long id = ids[a];
+        long value = values[a];
+        ids[a] = ids[b];
+        values[a] = values[b];
+        ids[b] = id;
+        values[b] = value;
+        positions.put(ids[a], a);
+        positions.put(ids[b], b);
+    }
+}
@@ -0,0 +1,253 @@
+package com.deerplatform.service;
+
+import java.util.Arrays;
+
+/**
+ * 用户ID压缩位图（Roaring结构）
+ *
+ * 按ID高16位分桶，每个桶按基数选择容器：不超过4096个元素时使用有序char数组，
+ * 超过后转换为1024个long组成的定长位图，元素减少到阈值以下再转换回数组。
+ * 只接受0到2^32-1之间的ID，非线程安全，由调用方加锁。
+ */
+public class UserIdBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+
+    private static final int BITMAP_WORDS = 1024;
+
+    // 有序的桶键（ID高16位）及对应容器
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int size;
+
+    private long cardinality;
+
+    /**
+     * ID能否放入位图
+     */
+    public static boolean accepts(long id) {
+        return id >= 0 && id <= 0xFFFFFFFFL;
+    }
+
+    /**
+     * 添加ID，返回是否新增
+     */
+    public boolean add(long id) {
+        if (!accepts(id)) {
+            throw new IllegalArgumentException("ID超出位图范围: " + id);
+        }
+        char high = (char) (id >>> 16);
+        char low = (char) id;
+        int index = Arrays.binarySearch(keys, 0, size, high);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, high, new ArrayContainer());
+        }
+        Container container = containers[index];
+        if (!container.add(low)) {
+            return false;
+        }
+        if (container instanceof ArrayContainer && container.cardinality() > ARRAY_MAX) {
+            containers[index] = ((ArrayContainer) container).toBitmap();
+        }
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * 移除ID，返回是否存在
+     */
+    public boolean remove(long id) {
+        if (!accepts(id)) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, (char) (id >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        if (!container.remove((char) id)) {
+            return false;
+        }
+        if (container.cardinality() == 0) {
+            removeContainer(index);
+        } else if (container instanceof BitmapContainer && container.cardinality() <= ARRAY_MAX) {
+            containers[index] = ((BitmapContainer) container).toArray();
+        }
+        cardinality--;
+        return true;
+    }
+
+    public boolean contains(long id) {
+        if (!accepts(id)) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, (char) (id >>> 16));
+        return index >= 0 && containers[index].contains((char) id);
+    }
+
+    public long cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * 估算占用的内存字节数
+     */
+    public int getSizeInBytes() {
+        int bytes = 32 + keys.length * 2 + containers.length * 4;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].getSizeInBytes();
+        }
+        return bytes;
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    private interface Container {
+        boolean add(char value);
+
+        boolean remove(char value);
+
+        boolean contains(char value);
+
+        int cardinality();
+
+        int getSizeInBytes();
+    }
+
+    /**
+     * 稀疏桶：有序数组
+     */
+    private static class ArrayContainer implements Container {
+        private char[] values = new char[4];
+        private int cardinality;
+
+        @Override
+        public boolean add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX + 1, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return true;
+        }
+
+        @Override
+        public boolean remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public int getSizeInBytes() {
+            return 32 + values.length * 2;
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * 稠密桶：65536位定长位图
+     */
+    private static class BitmapContainer implements Container {
+        private final long[] words = new long[BITMAP_WORDS];
+        private int cardinality;
+
+        @Override
+        public boolean add(char value) {
+            long mask = 1L << value;
+            int index = value >>> 6;
+            if ((words[index] & mask) != 0) {
+                return false;
+            }
+            words[index] |= mask;
+            cardinality++;
+            return true;
+        }
+
+        @Override
+        public boolean remove(char value) {
+            long mask = 1L << value;
+            int index = value >>> 6;
+            if ((words[index] & mask) == 0) {
+                return false;
+            }
+            words[index] &= ~mask;
+            cardinality--;
+            return true;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public int getSizeInBytes() {
+            return 32 + BITMAP_WORDS * 8;
+        }
+
+        ArrayContainer toArray() {
+            ArrayContainer array = new ArrayContainer();
+            array.values = new char[cardinality];
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    array.values[array.cardinality++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return array;
+        }
+    }
+}
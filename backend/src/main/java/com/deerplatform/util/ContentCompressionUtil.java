@@ -0,0 +1,104 @@
+package com.deerplatform.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 正文压缩存储编码
+ *
+ * 压缩后的格式：魔数头 + 原文UTF-8字节数 + ":" + Base64(deflate)。
+ * 不以魔数头开头的值视为未压缩的原文直接返回，旧数据无需迁移即可读取。
+ */
+public class ContentCompressionUtil {
+
+    // 以控制字符开头，编辑器产生的正文不会以此开头
+    public static final String MAGIC = "\u0001Z1:";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 值是否为压缩格式
+     */
+    public static boolean isCompressed(String value) {
+        return value != null && value.startsWith(MAGIC);
+    }
+
+    /**
+     * 压缩原文的UTF-8字节
+     */
+    public static String compress(byte[] raw, int level) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return MAGIC + raw.length + ":" + Base64.getEncoder().encodeToString(out.toByteArray());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 还原原文，未压缩的值原样返回
+     */
+    public static String decompress(String value) {
+        if (!isCompressed(value)) {
+            return value;
+        }
+        int separator = value.indexOf(':', MAGIC.length());
+        if (separator < 0) {
+            throw new IllegalStateException("压缩正文格式错误");
+        }
+        int rawLength = Integer.parseInt(value.substring(MAGIC.length(), separator));
+        byte[] compressed = Base64.getDecoder().decode(value.substring(separator + 1));
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int offset = 0;
+            while (offset < rawLength && !inflater.finished()) {
+                int count = inflater.inflate(raw, offset, rawLength - offset);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += count;
+            }
+            if (offset != rawLength) {
+                throw new IllegalStateException("压缩正文长度不符");
+            }
+            return new String(raw, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("压缩正文解压失败: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 读取压缩值头部记录的原文字节数，不是压缩格式时返回-1
+     */
+    public static long rawLength(String head) {
+        if (!isCompressed(head)) {
+            return -1;
+        }
+        int separator = head.indexOf(':', MAGIC.length());
+        if (separator < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(head.substring(MAGIC.length(), separator));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.deerplatform.util;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 弱ETag生成与比较工具
+ */
+public class ETagUtil {
+
+    // 进程启动标识：内存中的代号重启后从0开始，加上它避免与重启前发出的ETag相同
+    private static final String INSTANCE = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * 按更新时间和计数生成的ETag，不依赖进程状态；计数不改变更新时间，需一并计入
+     */
+    public static String forUpdatedAt(String kind, Long id, LocalDateTime updatedAt, long... counters) {
+        long millis = updatedAt != null ? Timestamp.valueOf(updatedAt).getTime() : 0;
+        StringBuilder etag = new StringBuilder("W/\"").append(kind).append('-').append(id)
+                .append('-').append(Long.toString(millis, 36));
+        for (long counter : counters) {
+            etag.append('.').append(Long.toString(counter, 36));
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * 按内存代号生成的ETag
+     */
+    public static String forGeneration(String kind, String generation) {
+        return "W/\"" + kind + "-" + INSTANCE + "-" + generation + "\"";
+    }
+
+    /**
+     * If-None-Match是否与ETag匹配（弱比较，忽略W/前缀）
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if ("*".equals(candidate) || stripWeak(candidate).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -0,0 +1,112 @@
+package com.deerplatform.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 可重复使用的gzip压缩器
+ *
+ * GZIPOutputStream每次都新建Deflater和输出缓冲区；该类由调用方复用同一个实例，
+ * 每次start时重置状态，按RFC 1952输出头部、deflate数据和校验尾部。非线程安全。
+ */
+public class GzipCompressor {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] buffer;
+
+    private OutputStream out;
+    // 上次flush之后是否有新的输入
+    private boolean pending;
+    // 本次写出的字节数（含头部和尾部）
+    private long written;
+
+    public GzipCompressor(int level, int bufferSize) {
+        this.deflater = new Deflater(level, true);
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * 开始一次压缩，写出gzip头部
+     */
+    public void start(OutputStream out) throws IOException {
+        this.out = out;
+        deflater.reset();
+        crc.reset();
+        pending = false;
+        out.write(HEADER);
+        written = HEADER.length;
+    }
+
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        crc.update(bytes, offset, length);
+        deflater.setInput(bytes, offset, length);
+        while (!deflater.needsInput()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+        pending = true;
+    }
+
+    /**
+     * 输出已压缩的数据，接收方可以立即解压
+     */
+    public void flush() throws IOException {
+        if (pending) {
+            while (deflate(Deflater.SYNC_FLUSH) == buffer.length) {
+                // 缓冲区写满说明可能还有数据
+            }
+            pending = false;
+        }
+        out.flush();
+    }
+
+    /**
+     * 结束压缩，写出剩余数据和尾部（CRC32与原始长度）
+     */
+    public void finish() throws IOException {
+        deflater.finish();
+        while (!deflater.finished()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+        byte[] trailer = new byte[8];
+        writeInt(trailer, 0, (int) crc.getValue());
+        writeInt(trailer, 4, (int) deflater.getBytesRead());
+        out.write(trailer);
+        written += trailer.length;
+        out = null;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * 释放Deflater占用的本地内存
+     */
+    public void end() {
+        deflater.end();
+    }
+
+    private int deflate(int flush) throws IOException {
+        int length = deflater.deflate(buffer, 0, buffer.length, flush);
+        if (length > 0) {
+            out.write(buffer, 0, length);
+            written += length;
+        }
+        return length;
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) value;
+        target[offset + 1] = (byte) (value >> 8);
+        target[offset + 2] = (byte) (value >> 16);
+        target[offset + 3] = (byte) (value >> 24);
+    }
+}
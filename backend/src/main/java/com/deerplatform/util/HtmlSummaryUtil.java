@@ -0,0 +1,201 @@
+package com.deerplatform.util;
+
+/**
+ * 从HTML正文生成纯文本摘要
+ *
+ * 单次顺序扫描：跳过标签、注释以及script/style内容，解码常见实体，合并连续空白，
+ * 按码点计数，不会拆开代理对；得到足够的字符后立即停止，不处理正文的剩余部分。
+ */
+public class HtmlSummaryUtil {
+
+    // 实体名称最长长度（不含&和;）
+    private static final int MAX_ENTITY_LENGTH = 10;
+
+    private static final String[] ENTITY_NAMES = {
+            "nbsp", "lt", "gt", "amp", "quot", "apos", "hellip", "mdash", "ndash",
+            "ldquo", "rdquo", "lsquo", "rsquo", "middot", "times", "copy", "reg"
+    };
+
+    private static final int[] ENTITY_VALUES = {
+            ' ', '<', '>', '&', '"', '\'', 0x2026, 0x2014, 0x2013,
+            0x201C, 0x201D, 0x2018, 0x2019, 0x00B7, 0x00D7, 0x00A9, 0x00AE
+    };
+
+    // 前后产生分隔的块级标签
+    private static final String[] BLOCK_TAGS = {
+            "p", "br", "div", "li", "ul", "ol", "tr", "td", "th", "table", "blockquote", "pre", "hr",
+            "h1", "h2", "h3", "h4", "h5", "h6", "section", "article", "header", "footer"
+    };
+
+    /**
+     * 生成最多maxLength个字符（码点）的摘要，超出时以"..."结尾
+     */
+    public static String summarize(String html, int maxLength) {
+        if (html == null) {
+            return "";
+        }
+        int length = html.length();
+        StringBuilder out = new StringBuilder(Math.min(length, maxLength * 2) + 3);
+        int visible = 0;
+        boolean pendingSpace = false;
+        boolean truncated = false;
+
+        int i = 0;
+        while (i < length) {
+            char c = html.charAt(i);
+            int cp;
+            int next;
+
+            if (c == '<' && i + 1 < length && isMarkupStart(html.charAt(i + 1))) {
+                if (isBlockTag(html, i + 1)) {
+                    pendingSpace = visible > 0;
+                }
+                i = skipMarkup(html, i);
+                continue;
+            }
+            cp = -1;
+            next = i;
+            if (c == '&') {
+                next = entityEnd(html, i);
+                if (next > 0) {
+                    cp = decodeEntity(html, i + 1, next - 1);
+                }
+            }
+            if (cp < 0) {
+                cp = html.codePointAt(i);
+                next = i + Character.charCount(cp);
+            }
+            i = next;
+
+            if (Character.isWhitespace(cp) || cp == 0x00A0) {
+                pendingSpace = visible > 0;
+                continue;
+            }
+            if (visible + (pendingSpace ? 1 : 0) >= maxLength) {
+                truncated = true;
+                break;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                visible++;
+                pendingSpace = false;
+            }
+            out.appendCodePoint(cp);
+            visible++;
+        }
+
+        if (truncated) {
+            out.append("...");
+        }
+        return out.toString();
+    }
+
+    private static boolean isMarkupStart(char c) {
+        return c == '/' || c == '!' || c == '?' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * 跳过从start开始的标签或注释，script和style连同内容一起跳过，返回其后的位置
+     */
+    private static int skipMarkup(String html, int start) {
+        int length = html.length();
+        if (html.startsWith("<!--", start)) {
+            int end = html.indexOf("-->", start + 4);
+            return end < 0 ? length : end + 3;
+        }
+        int end = html.indexOf('>', start + 1);
+        if (end < 0) {
+            return length;
+        }
+        String rawTextTag = tagNameIs(html, start + 1, "script") ? "script"
+                : tagNameIs(html, start + 1, "style") ? "style" : null;
+        if (rawTextTag == null) {
+            return end + 1;
+        }
+        // 查找对应的结束标签
+        for (int i = html.indexOf('<', end + 1); i >= 0; i = html.indexOf('<', i + 1)) {
+            if (i + 1 < length && html.charAt(i + 1) == '/' && tagNameIs(html, i + 2, rawTextTag)) {
+                int close = html.indexOf('>', i + 2);
+                return close < 0 ? length : close + 1;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isBlockTag(String html, int nameStart) {
+        if (nameStart < html.length() && html.charAt(nameStart) == '/') {
+            nameStart++;
+        }
+        for (String tag : BLOCK_TAGS) {
+            if (tagNameIs(html, nameStart, tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * nameStart处的标签名是否等于name（不区分大小写）
+     */
+    private static boolean tagNameIs(String html, int nameStart, String name) {
+        int end = nameStart + name.length();
+        if (!html.regionMatches(true, nameStart, name, 0, name.length())) {
+            return false;
+        }
+        if (end >= html.length()) {
+            return true;
+        }
+        char c = html.charAt(end);
+        return c == '>' || c == '/' || Character.isWhitespace(c);
+    }
+
+    /**
+     * 查找实体结尾的分号，返回分号之后的位置；不是合法实体时返回-1
+     */
+    private static int entityEnd(String html, int start) {
+        int limit = Math.min(html.length(), start + MAX_ENTITY_LENGTH + 2);
+        for (int i = start + 1; i < limit; i++) {
+            char c = html.charAt(i);
+            if (c == ';') {
+                return i > start + 1 ? i + 1 : -1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '#') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解码[start, end)之间的实体名称，无法识别时返回-1
+     */
+    private static int decodeEntity(String html, int start, int end) {
+        if (html.charAt(start) == '#') {
+            boolean hex = end - start > 1 && (html.charAt(start + 1) == 'x' || html.charAt(start + 1) == 'X');
+            int radix = hex ? 16 : 10;
+            int value = 0;
+            int i = start + (hex ? 2 : 1);
+            if (i == end) {
+                return -1;
+            }
+            for (; i < end; i++) {
+                int digit = Character.digit(html.charAt(i), radix);
+                if (digit < 0 || value > Character.MAX_CODE_POINT) {
+                    return -1;
+                }
+                value = value * radix + digit;
+            }
+            boolean valid = value > 0 && value <= Character.MAX_CODE_POINT
+                    && (value < Character.MIN_SURROGATE || value > Character.MAX_SURROGATE);
+            return valid ? value : -1;
+        }
+        int nameLength = end - start;
+        for (int k = 0; k < ENTITY_NAMES.length; k++) {
+            String name = ENTITY_NAMES[k];
+            if (name.length() == nameLength && html.regionMatches(start, name, 0, nameLength)) {
+                return ENTITY_VALUES[k];
+            }
+        }
+        return -1;
+    }
+}
@@ -1,58 +1,38 @@
 package com.deerplatform.util;
 
-import java.util.HashMap;
-import java.util.Map;
+import com.deerplatform.dto.ApiResponse;
 
 public class ResponseUtil {
     
-    public static Map<String, Object> success() {
-        Map<String, Object> result = new HashMap<>();
-        result.put("code", 200);
-        result.put("message", "操作成功");
-        result.put("success", true);
-        return result;
+    public static ApiResponse<Void> success() {
+        return new ApiResponse<>(200, "操作成功", true, null);
     }
     
-    public static Map<String, Object> success(Object data) {
-        Map<String, Object> result = success();
-        result.put("data", data);
-        return result;
+    public static <T> ApiResponse<T> success(T data) {
+        return new ApiResponse<>(200, "操作成功", true, data);
     }
     
-    public static Map<String, Object> success(String message, Object data) {
-        Map<String, Object> result = new HashMap<>();
-        result.put("code", 200);
-        result.put("message", message);
-        result.put("success", true);
-        result.put("data", data);
-        return result;
+    public static <T> ApiResponse<T> success(String message, T data) {
+        return new ApiResponse<>(200, message, true, data);
     }
     
-    public static Map<String, Object> error(String message) {
-        Map<String, Object> result = new HashMap<>();
-        result.put("code", 500);
-        result.put("message", message);
-        result.put("success", false);
-        return result;
+    public static ApiResponse<Void> error(String message) {
+        return error(500, message);
     }
     
-    public static Map<String, Object> error(int code, String message) {
-        Map<String, Object> result = new HashMap<>();
-        result.put("code", code);
-        result.put("message", message);
-        result.put("success", false);
-        return result;
+    public static ApiResponse<Void> error(int code, String message) {
+        return new ApiResponse<>(code, message, false, null);
     }
     
-    public static Map<String, Object> unauthorized(String message) {
+    public static ApiResponse<Void> unauthorized(String message) {
         return error(401, message);
     }
     
-    public static Map<String, Object> forbidden(String message) {
+    public static ApiResponse<Void> forbidden(String message) {
         return error(403, message);
     }
     
-    public static Map<String, Object> badRequest(String message) {
+    public static ApiResponse<Void> badRequest(String message) {
         return error(400, message);
     }
-}
\ No newline at end of file
+}
@@ -36,14 +36,15 @@ CREATE TABLE IF NOT EXISTS categories (
 CREATE TABLE IF NOT EXISTS posts (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     title VARCHAR(100) NOT NULL COMMENT '标题',
-    content LONGTEXT NOT NULL COMMENT '内容',
     summary VARCHAR(500) COMMENT '摘要',
     cover_image VARCHAR(255) COMMENT '封面图片',
     category_id BIGINT NOT NULL COMMENT '分类ID',
     author_id BIGINT NOT NULL COMMENT '作者ID',
     view_count INT DEFAULT 0 COMMENT '浏览次数',
     like_count INT DEFAULT 0 COMMENT '点赞次数',
+    favorite_count INT DEFAULT 0 COMMENT '收藏次数',
     comment_count INT DEFAULT 0 COMMENT '评论次数',
+    hot_score DOUBLE DEFAULT 0 COMMENT '热度分，由定时任务计算',
     status ENUM('DRAFT', 'PUBLISHED', 'HIDDEN', 'DELETED') DEFAULT 'PUBLISHED' COMMENT '状态',
     is_top BOOLEAN DEFAULT FALSE COMMENT '是否置顶',
     allow_comment BOOLEAN DEFAULT TRUE COMMENT '是否允许评论',
@@ -99,6 +100,24 @@ CREATE TABLE IF NOT EXISTS user_likes (
     UNIQUE KEY uk_user_target (user_id, target_id, target_type)
 );
 
+-- 帖子正文表（与posts表1:1拆分，posts表只保留窄列）
+CREATE TABLE IF NOT EXISTS post_content (
+    post_id BIGINT PRIMARY KEY COMMENT '帖子ID',
+    content LONGTEXT NOT NULL COMMENT '内容，可能为压缩格式',
+    revision INT NOT NULL DEFAULT 0 COMMENT '修订号',
+    updated_at TIMESTAMP NULL COMMENT '正文更新时间',
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
+
+-- 帖子计数分片表（热点帖子的计数增量分散写入，定时合并回posts表）
+CREATE TABLE IF NOT EXISTS post_counter_shards (
+    post_id BIGINT NOT NULL COMMENT '帖子ID',
+    metric VARCHAR(16) NOT NULL COMMENT '计数类型',
+    shard INT NOT NULL COMMENT '分片号',
+    delta BIGINT NOT NULL DEFAULT 0 COMMENT '尚未合并的增量',
+    PRIMARY KEY (post_id, metric, shard)
+);
+
 -- 插入默认分类数据
 INSERT INTO categories (name, description, icon, sort_order) VALUES
 ('经验分享', '分享您的林麝养殖实践经验，与同行交流心得体会', '🤝', 1),
@@ -208,6 +227,28 @@ ALTER TABLE posts ADD INDEX idx_is_top_status (is_top, status);
 ALTER TABLE posts ADD INDEX idx_like_count (like_count);
 ALTER TABLE posts ADD INDEX idx_view_count (view_count);
 
+-- 游标分页索引：InnoDB二级索引自带主键，(status, 排序列) 即可覆盖 (排序列, id) 的范围扫描
+ALTER TABLE posts ADD INDEX idx_status_created_at (status, created_at);
+ALTER TABLE posts ADD INDEX idx_status_view_count (status, view_count);
+ALTER TABLE posts ADD INDEX idx_status_like_count (status, like_count);
+ALTER TABLE posts ADD INDEX idx_status_comment_count (status, comment_count);
+ALTER TABLE posts ADD INDEX idx_category_status_created_at (category_id, status, created_at);
+ALTER TABLE posts ADD INDEX idx_category_status_view_count (category_id, status, view_count);
+ALTER TABLE posts ADD INDEX idx_category_status_like_count (category_id, status, like_count);
+ALTER TABLE posts ADD INDEX idx_category_status_comment_count (category_id, status, comment_count);
+
+-- 全文索引：ngram分词支持中文，默认 ngram_token_size=2，供 app.search.backend=fulltext 使用
+ALTER TABLE posts ADD FULLTEXT INDEX ft_title (title) WITH PARSER ngram;
+ALTER TABLE post_content ADD FULLTEXT INDEX ft_content (content) WITH PARSER ngram;
+
+-- 已有数据库升级（正文拆分到post_content）：新版本启动时自动把posts.content改为可空，
+-- 由PostContentSplitMigrator分批迁移正文，迁移完成（日志提示）后执行：
+-- ALTER TABLE posts DROP INDEX ft_title_content;
+-- ALTER TABLE posts DROP COLUMN content;
+
+-- 热度排行：重启时按热度分加载排行
+ALTER TABLE posts ADD INDEX idx_status_hot_score (status, hot_score);
+
 ALTER TABLE comments ADD INDEX idx_audit_status (audit_status);
 ALTER TABLE comments ADD INDEX idx_like_count (like_count);
 
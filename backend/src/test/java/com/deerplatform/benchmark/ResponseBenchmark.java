@@ -0,0 +1,115 @@
+package com.deerplatform.benchmark;
+
+import com.deerplatform.dto.ApiResponse;
+import com.deerplatform.dto.PageResponse;
+import com.deerplatform.dto.PostSummaryDTO;
+import com.deerplatform.util.ResponseUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 列表响应序列化基准测试：HashMap包装完整Page与ApiResponse包装精简分页对比
+ *
+ * 每次响应分配的字节数见gc.alloc.rate.norm，响应体字节数在启动时打印。
+ *
+ * 运行：mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.deerplatform.benchmark.ResponseBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBenchmark {
+
+    // 每页帖子数
+    @Param({"10", "50"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter writer;
+    private Page<PostSummaryDTO> page;
+
+    @Setup
+    public void setUp() throws Exception {
+        // 与Spring Boot配置一致：注册JavaTimeModule，日期输出为字符串
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(ApiResponse.class);
+
+        List<PostSummaryDTO> posts = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < pageSize; i++) {
+            PostSummaryDTO post = new PostSummaryDTO();
+            post.setId((long) i + 1);
+            post.setTitle("林麝养殖经验分享 " + i);
+            post.setSummary("林麝养殖需要注意圈舍的通风与卫生，饲料应以新鲜树叶为主，辅以精料与矿物质。");
+            post.setViewCount(100 + i);
+            post.setLikeCount(i);
+            post.setCommentCount(0);
+            post.setStatus("PUBLISHED");
+            post.setCreatedAt(now);
+            post.setUpdatedAt(now);
+            posts.add(post);
+        }
+        page = new PageImpl<>(posts, PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "createdAt")), 1000);
+
+        System.out.printf("%n响应体字节数 pageSize=%d: map=%d, typed=%d%n",
+                pageSize, mapResponse().length, typedResponse().length);
+    }
+
+    /**
+     * 原实现：每次响应新建HashMap，序列化完整的Page对象
+     */
+    @Benchmark
+    public byte[] mapResponse() throws Exception {
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("message", "获取帖子列表成功");
+        result.put("success", true);
+        result.put("data", page);
+        return objectMapper.writeValueAsBytes(result);
+    }
+
+    /**
+     * 现实现：ApiResponse包装精简分页，使用预先创建的ObjectWriter
+     */
+    @Benchmark
+    public byte[] typedResponse() throws Exception {
+        return writer.writeValueAsBytes(ResponseUtil.success("获取帖子列表成功", PageResponse.of(page)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResponseBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,69 @@
+package com.deerplatform.benchmark;
+
+import com.deerplatform.util.HtmlSummaryUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 摘要生成基准测试：单次扫描与正则去标签对比
+ *
+ * 运行：mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.deerplatform.benchmark.SummaryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SummaryBenchmark {
+
+    private static final String PARAGRAPH = "<p>林麝养殖需要注意圈舍的通风与卫生，<strong>饲料</strong>应以新鲜树叶为主，"
+            + "辅以精料&nbsp;&amp;&nbsp;矿物质。<a href=\"/posts/1\">详情</a> &#x1F98C; Musk deer farming notes.</p>\n";
+
+    // 正文大小（字节级别的近似值）
+    @Param({"4096", "262144", "4194304"})
+    private int contentSize;
+
+    private String content;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder(contentSize + PARAGRAPH.length());
+        while (builder.length() < contentSize) {
+            builder.append(PARAGRAPH);
+        }
+        content = builder.toString();
+    }
+
+    @Benchmark
+    public String streaming() {
+        return HtmlSummaryUtil.summarize(content, 200);
+    }
+
+    @Benchmark
+    public String regex() {
+        String plainText = content.replaceAll("<[^>]*>", "");
+        return plainText.length() <= 200 ? plainText : plainText.substring(0, 200) + "...";
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SummaryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
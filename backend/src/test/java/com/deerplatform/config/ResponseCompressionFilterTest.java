@@ -0,0 +1,140 @@
+package com.deerplatform.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JSON接口响应压缩测试
+ */
+public class ResponseCompressionFilterTest {
+
+    private static final int MIN_SIZE = 1024;
+
+    private final ResponseCompressionFilter filter = new ResponseCompressionFilter(true, 6, MIN_SIZE, 512);
+
+    @Test
+    void smallResponseIsSentRawWithLength() throws Exception {
+        String body = json(MIN_SIZE - 100);
+        MockHttpServletResponse response = execute(request("/api/posts", "gzip"), "application/json", body);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body.getBytes(StandardCharsets.UTF_8).length, response.getContentLength());
+        assertEquals(body, response.getContentAsString());
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+    }
+
+    @Test
+    void largeJsonIsGzippedWithVary() throws Exception {
+        String body = json(MIN_SIZE * 10);
+        MockHttpServletResponse response = execute(request("/api/posts", "gzip, deflate, br"), "application/json", body);
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertNull(response.getHeader(HttpHeaders.CONTENT_LENGTH));
+        byte[] compressed = response.getContentAsByteArray();
+        assertTrue(compressed.length < body.length());
+        assertEquals(body, new String(gunzip(compressed), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void largeJsonIsNotCompressedWithoutAcceptEncoding() throws Exception {
+        String body = json(MIN_SIZE * 10);
+        MockHttpServletResponse response = execute(request("/api/posts", null), "application/json", body);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body, response.getContentAsString());
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+    }
+
+    @Test
+    void nonJsonResponseIsSentRawWithoutVary() throws Exception {
+        String body = json(MIN_SIZE * 10);
+        MockHttpServletResponse response = execute(request("/api/export", "gzip"), "text/csv", body);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(response.getHeader(HttpHeaders.VARY));
+        assertEquals(body, response.getContentAsString());
+    }
+
+    @Test
+    void onlyFiltersApiRequests() throws Exception {
+        String body = json(MIN_SIZE * 10);
+        MockHttpServletResponse response = execute(request("/uploads/a.json", "gzip"), "application/json", body);
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body, response.getContentAsString());
+
+        MockHttpServletRequest head = request("/api/posts", "gzip");
+        head.setMethod("HEAD");
+        response = execute(head, "application/json", body);
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void selectsGzipFromAcceptEncoding() {
+        assertEquals("gzip", ResponseCompressionFilter.selectEncoding("gzip"));
+        assertEquals("gzip", ResponseCompressionFilter.selectEncoding("br;q=1.0, GZIP;q=0.5"));
+        assertEquals("gzip", ResponseCompressionFilter.selectEncoding("*"));
+        assertNull(ResponseCompressionFilter.selectEncoding(null));
+        assertNull(ResponseCompressionFilter.selectEncoding("identity"));
+        assertNull(ResponseCompressionFilter.selectEncoding("br, deflate"));
+        assertNull(ResponseCompressionFilter.selectEncoding("gzip;q=0"));
+        assertNull(ResponseCompressionFilter.selectEncoding("gzip;q=abc"));
+    }
+
+    private MockHttpServletResponse execute(MockHttpServletRequest request, String contentType, String body)
+            throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            res.setContentType(contentType);
+            res.setCharacterEncoding("UTF-8");
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            // 分段写出，模拟消息转换器
+            for (int offset = 0; offset < bytes.length; offset += 300) {
+                res.getOutputStream().write(bytes, offset, Math.min(300, bytes.length - offset));
+            }
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String uri, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return request;
+    }
+
+    private static String json(int length) {
+        StringBuilder builder = new StringBuilder("{\"data\":\"");
+        while (builder.length() < length - 2) {
+            builder.append("deer ");
+        }
+        return builder.append("\"}").toString();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int count;
+            while ((count = in.read(buffer)) > 0) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+    }
+}
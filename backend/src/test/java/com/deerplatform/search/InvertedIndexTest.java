@@ -0,0 +1,117 @@
+package com.deerplatform.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内存倒排索引测试
+ */
+public class InvertedIndexTest {
+
+    private static final int PUBLISHED = 0;
+    private static final int DRAFT = 1;
+    private static final int ALL = InvertedIndex.statusBit(PUBLISHED) | InvertedIndex.statusBit(DRAFT);
+
+    @Test
+    void requiresAllQueryTerms() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, PUBLISHED, "spring boot", "java web");
+        index.put(2, PUBLISHED, "spring cloud", "java micro");
+        index.put(3, PUBLISHED, "vue", "frontend");
+
+        assertEquals(Arrays.asList(1L), index.search("spring boot", ALL));
+        assertEquals(2, index.search("java", ALL).size());
+        assertTrue(index.search("spring vue", ALL).isEmpty());
+        assertTrue(index.search("unknown", ALL).isEmpty());
+    }
+
+    @Test
+    void ordersByBm25() {
+        InvertedIndex index = new InvertedIndex();
+        // 标题命中权重高于正文
+        index.put(1, PUBLISHED, "other", "redis");
+        index.put(2, PUBLISHED, "redis", "other");
+        // 相同词频下，较短的文档得分更高
+        index.put(3, PUBLISHED, "x", "redis a b c d e f g h i j k l m n o p");
+
+        assertEquals(Arrays.asList(2L, 1L, 3L), index.search("redis", ALL));
+    }
+
+    @Test
+    void filtersByStatus() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, PUBLISHED, "kafka", "");
+        index.put(2, DRAFT, "kafka", "");
+
+        assertEquals(Arrays.asList(1L), index.search("kafka", InvertedIndex.statusBit(PUBLISHED)));
+        assertEquals(Arrays.asList(2L), index.search("kafka", InvertedIndex.statusBit(DRAFT)));
+        assertEquals(2, index.search("kafka", ALL).size());
+    }
+
+    @Test
+    void putReplacesAndRemoveDeletes() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, PUBLISHED, "mysql", "");
+        index.put(1, PUBLISHED, "postgres", "");
+
+        assertTrue(index.search("mysql", ALL).isEmpty());
+        assertEquals(Arrays.asList(1L), index.search("postgres", ALL));
+
+        index.remove(1);
+        assertTrue(index.search("postgres", ALL).isEmpty());
+        assertEquals(0, index.getStats().get("documents"));
+    }
+
+    @Test
+    void repeatedPutsAreCompacted() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, PUBLISHED, "nginx", "");
+        index.put(2, PUBLISHED, "tomcat", "");
+        for (int i = 0; i < 1000; i++) {
+            index.put(1, PUBLISHED, "nginx", "edit " + i);
+        }
+
+        Map<String, Object> stats = index.getStats();
+        assertEquals(2, stats.get("documents"));
+        assertTrue((Integer) stats.get("deletedDocuments") <= 64, "更新产生的已删除文档应被回收");
+        assertEquals(Arrays.asList(1L), index.search("nginx", ALL));
+        assertEquals(Arrays.asList(2L), index.search("tomcat", ALL));
+    }
+
+    @Test
+    void idfIgnoresDeletedDocuments() {
+        // 同样的存活文档，一个索引带有大量已删除的同词文档，得分顺序应一致
+        InvertedIndex clean = new InvertedIndex();
+        InvertedIndex dirty = new InvertedIndex();
+        for (InvertedIndex index : Arrays.asList(clean, dirty)) {
+            index.put(1, PUBLISHED, "alpha", "beta beta beta");
+            index.put(2, PUBLISHED, "beta", "alpha alpha alpha alpha");
+            index.put(3, PUBLISHED, "gamma", "gamma");
+        }
+        // 删除数量不触发压缩
+        for (long id = 100; id < 140; id++) {
+            dirty.put(id, PUBLISHED, "alpha", "");
+            dirty.remove(id);
+        }
+
+        List<Long> expected = clean.search("alpha beta", ALL);
+        assertEquals(expected, dirty.search("alpha beta", ALL));
+        assertEquals(40, dirty.getStats().get("deletedDocuments"));
+    }
+
+    @Test
+    void keepsOffsetsOfContentTerms() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, PUBLISHED, "title", "<p>hello world</p>");
+
+        Map<String, int[]> offsets = index.getOffsets(1, Collections.singletonList("world"));
+        assertArrayEquals(new int[]{9}, offsets.get("world"));
+        assertTrue(index.getOffsets(2, Collections.singletonList("world")).isEmpty());
+    }
+}
@@ -0,0 +1,70 @@
+package com.deerplatform.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 倒排列表变长整数编码测试
+ */
+public class PostingListTest {
+
+    @Test
+    void roundTripsDocsAndFrequencies() {
+        // 覆盖1~5字节的变长整数
+        int[] docs = {0, 1, 127, 128, 16_383, 16_384, 2_097_151, 2_097_152, Integer.MAX_VALUE - 1};
+        int[] frequencies = {1, 127, 128, 300, 16_384, 1, 2_097_152, 5, Integer.MAX_VALUE};
+        PostingList list = new PostingList();
+        for (int i = 0; i < docs.length; i++) {
+            list.add(docs[i], frequencies[i]);
+        }
+
+        assertEquals(docs.length, list.getDocCount());
+        PostingList.Iterator it = list.iterator();
+        for (int i = 0; i < docs.length; i++) {
+            assertTrue(it.next());
+            assertEquals(docs[i], it.doc());
+            assertEquals(frequencies[i], it.termFrequency());
+        }
+        assertFalse(it.next());
+    }
+
+    @Test
+    void smallGapsTakeTwoBytesPerEntry() {
+        PostingList list = new PostingList();
+        for (int doc = 0; doc < 100; doc++) {
+            list.add(doc, 1);
+        }
+        assertEquals(200, list.getSizeInBytes());
+    }
+
+    @Test
+    void rejectsNonIncreasingDocs() {
+        PostingList list = new PostingList();
+        list.add(5, 1);
+        assertThrows(IllegalArgumentException.class, () -> list.add(5, 1));
+        assertThrows(IllegalArgumentException.class, () -> list.add(3, 1));
+    }
+
+    @Test
+    void remapDropsDeletedDocsAndRenumbers() {
+        PostingList list = new PostingList();
+        list.add(0, 2);
+        list.add(2, 3);
+        list.add(4, 4);
+
+        PostingList remapped = list.remap(new int[]{0, 1, -1, 2, 3});
+
+        List<int[]> entries = new ArrayList<>();
+        PostingList.Iterator it = remapped.iterator();
+        while (it.next()) {
+            entries.add(new int[]{it.doc(), it.termFrequency()});
+        }
+        assertEquals(2, remapped.getDocCount());
+        assertArrayEquals(new int[]{0, 2}, entries.get(0));
+        assertArrayEquals(new int[]{3, 4}, entries.get(1));
+    }
+}
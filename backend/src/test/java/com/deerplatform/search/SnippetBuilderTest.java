@@ -0,0 +1,90 @@
+package com.deerplatform.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 搜索摘要测试
+ */
+public class SnippetBuilderTest {
+
+    @Test
+    void marksHitsAndStripsMarkup() {
+        String content = "<p>Hello <b>world</b></p>";
+        String snippet = SnippetBuilder.build(content, offsets("world", content.indexOf("world")));
+        assertEquals("Hello <mark>world</mark>", snippet);
+    }
+
+    @Test
+    void decodesEntitiesAndEscapesOutput() {
+        String content = "&lt;b&gt; &amp; \"x\" key";
+        String snippet = SnippetBuilder.build(content, offsets("key", content.indexOf("key")));
+        assertEquals("&lt;b&gt; &amp; &quot;x&quot; <mark>key</mark>", snippet);
+    }
+
+    @Test
+    void doesNotStartInsideEntity() {
+        String content = "a&lt;b&gt; &amp; <i>\"x\"</i> key";
+        String snippet = SnippetBuilder.build(content, offsets("key", content.indexOf("key")));
+        assertEquals("...&amp; &quot;x&quot; <mark>key</mark>", snippet);
+    }
+
+    @Test
+    void ignoresOffsetsThatDoNotMatchContent() {
+        String content = "nothing here";
+        assertNull(SnippetBuilder.build(content, offsets("world", 0)));
+        assertNull(SnippetBuilder.build(content, offsets("world", 100)));
+        assertNull(SnippetBuilder.build(content, Collections.emptyMap()));
+        assertNull(SnippetBuilder.build(null, offsets("world", 0)));
+    }
+
+    @Test
+    void startsNearTheDensestWindow() {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            content.append("filler ");
+        }
+        int alpha = content.length();
+        content.append("alpha and beta");
+        int beta = alpha + "alpha and ".length();
+        for (int i = 0; i < 50; i++) {
+            content.append(" filler");
+        }
+        Map<String, int[]> offsets = new LinkedHashMap<>();
+        // 开头单独出现一次alpha，窗口应选择同时包含两个词的位置
+        content.replace(0, 5, "alpha");
+        offsets.put("alpha", new int[]{0, alpha});
+        offsets.put("beta", new int[]{beta});
+
+        String snippet = SnippetBuilder.build(content.toString(), offsets);
+        assertTrue(snippet.startsWith("..."), snippet);
+        assertTrue(snippet.contains("<mark>alpha</mark> and <mark>beta</mark>"), snippet);
+        assertTrue(snippet.endsWith("..."), snippet);
+    }
+
+    @Test
+    void doesNotStartInsideTagOrSurrogatePair() {
+        String content = "<a href=\"https://example.com/long/path\">link</a> text 😀😀 target";
+        String snippet = SnippetBuilder.build(content, offsets("target", content.indexOf("target")));
+        assertFalse(snippet.contains("href"), snippet);
+        assertTrue(snippet.endsWith("<mark>target</mark>"), snippet);
+        for (int i = 0; i < snippet.length(); i++) {
+            char c = snippet.charAt(i);
+            if (Character.isLowSurrogate(c)) {
+                assertTrue(i > 0 && Character.isHighSurrogate(snippet.charAt(i - 1)), snippet);
+            }
+        }
+    }
+
+    private static Map<String, int[]> offsets(String term, int... positions) {
+        Map<String, int[]> offsets = new HashMap<>();
+        offsets.put(term, positions);
+        return offsets;
+    }
+}
@@ -0,0 +1,124 @@
+package com.deerplatform.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 搜索建议前缀树测试
+ */
+public class SuggestTrieTest {
+
+    @Test
+    void returnsPrefixMatchesByWeight() {
+        SuggestTrie trie = new SuggestTrie();
+        trie.add("spring", entry("Spring", 5));
+        trie.add("spring boot", entry("Spring Boot", 20));
+        trie.add("spring cloud", entry("Spring Cloud", 10));
+        trie.add("sql", entry("SQL", 100));
+
+        assertEquals(Arrays.asList("Spring Boot", "Spring Cloud", "Spring"), texts(trie.suggest("spr", 10)));
+        assertEquals(Arrays.asList("SQL", "Spring Boot"), texts(trie.suggest("s", 2)));
+        assertTrue(trie.suggest("x", 10).isEmpty());
+        assertEquals(4, trie.suggest("", 10).size());
+    }
+
+    @Test
+    void updateWeightReordersInBothDirections() {
+        SuggestTrie trie = new SuggestTrie();
+        SuggestTrie.Entry java = entry("Java", 10);
+        SuggestTrie.Entry javascript = entry("JavaScript", 5);
+        trie.add("java", java);
+        trie.add("javascript", javascript);
+
+        trie.updateWeight("javascript", javascript, 50);
+        assertEquals(Arrays.asList("JavaScript", "Java"), texts(trie.suggest("jav", 10)));
+
+        // 权重下降后父节点的最大权重也要下降
+        trie.updateWeight("javascript", javascript, 1);
+        assertEquals(Arrays.asList("Java"), texts(trie.suggest("j", 1)));
+    }
+
+    @Test
+    void removePrunesEmptyBranches() {
+        SuggestTrie trie = new SuggestTrie();
+        SuggestTrie.Entry redis = entry("Redis", 10);
+        SuggestTrie.Entry react = entry("React", 1);
+        trie.add("redis", redis);
+        trie.add("react", react);
+
+        trie.remove("redis", redis);
+        assertEquals(1, trie.size());
+        assertEquals(Arrays.asList("React"), texts(trie.suggest("re", 10)));
+        assertTrue(trie.suggest("red", 10).isEmpty());
+
+        // 重复删除和按引用不匹配的删除被忽略
+        trie.remove("redis", redis);
+        trie.remove("react", entry("React", 1));
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    void sameKeyHoldsMultipleEntries() {
+        SuggestTrie trie = new SuggestTrie();
+        trie.add("docker", entry("Docker a", 3));
+        trie.add("docker", entry("Docker b", 7));
+        assertEquals(Arrays.asList("Docker b", "Docker a"), texts(trie.suggest("docker", 10)));
+    }
+
+    @Test
+    void matchesBruteForceOnRandomData() {
+        Random random = new Random(42);
+        SuggestTrie trie = new SuggestTrie();
+        List<String> keys = new ArrayList<>();
+        List<SuggestTrie.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder key = new StringBuilder();
+            int length = 1 + random.nextInt(5);
+            for (int k = 0; k < length; k++) {
+                key.append((char) ('a' + random.nextInt(3)));
+            }
+            SuggestTrie.Entry entry = entry(key + "#" + i, random.nextInt(1000));
+            keys.add(key.toString());
+            entries.add(entry);
+            trie.add(key.toString(), entry);
+        }
+        for (int i = 0; i < 200; i++) {
+            int index = random.nextInt(entries.size());
+            trie.updateWeight(keys.get(index), entries.get(index), random.nextInt(1000));
+        }
+
+        for (String prefix : new String[]{"a", "ab", "cba", "bbb"}) {
+            List<SuggestTrie.Entry> result = trie.suggest(prefix, 5);
+            long expectedCount = keys.stream().filter(key -> key.startsWith(prefix)).count();
+            assertEquals(Math.min(5, expectedCount), result.size());
+            // 返回的是权重最高的几条
+            long minReturned = result.get(result.size() - 1).getWeight();
+            for (int i = 0; i < keys.size(); i++) {
+                if (keys.get(i).startsWith(prefix) && !result.contains(entries.get(i))) {
+                    assertTrue(entries.get(i).getWeight() <= minReturned, prefix);
+                }
+            }
+            for (int i = 1; i < result.size(); i++) {
+                assertTrue(result.get(i - 1).getWeight() >= result.get(i).getWeight());
+            }
+        }
+    }
+
+    private static SuggestTrie.Entry entry(String text, long weight) {
+        return new SuggestTrie.Entry(text, "title", 1L, weight);
+    }
+
+    private static List<String> texts(List<SuggestTrie.Entry> entries) {
+        List<String> result = new ArrayList<>();
+        for (SuggestTrie.Entry entry : entries) {
+            result.add(entry.getText());
+        }
+        return result;
+    }
+}
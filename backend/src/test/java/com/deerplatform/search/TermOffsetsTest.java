@@ -0,0 +1,47 @@
+package com.deerplatform.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 词元位置表测试
+ */
+public class TermOffsetsTest {
+
+    @Test
+    void returnsRecordedOffsetsInOrder() {
+        Map<String, int[]> offsets = new HashMap<>();
+        // 第0项为个数
+        offsets.put("java", new int[]{3, 0, 200, 100_000});
+        offsets.put("spring", new int[]{1, 42});
+        TermOffsets termOffsets = TermOffsets.build(offsets);
+
+        assertArrayEquals(new int[]{0, 200, 100_000}, termOffsets.get("java"));
+        assertArrayEquals(new int[]{42}, termOffsets.get("spring"));
+        assertEquals(0, termOffsets.get("kotlin").length);
+    }
+
+    @Test
+    void hashCollisionsReturnPositionsOfBothTerms() {
+        // "Aa"与"BB"哈希值相同，由调用方核对原文
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        Map<String, int[]> offsets = new HashMap<>();
+        offsets.put("Aa", new int[]{2, 5, 30});
+        offsets.put("BB", new int[]{1, 10});
+        TermOffsets termOffsets = TermOffsets.build(offsets);
+
+        assertArrayEquals(new int[]{5, 10, 30}, termOffsets.get("Aa"));
+        assertArrayEquals(new int[]{5, 10, 30}, termOffsets.get("BB"));
+    }
+
+    @Test
+    void emptyMap() {
+        TermOffsets termOffsets = TermOffsets.build(new HashMap<>());
+        assertEquals(0, termOffsets.get("any").length);
+        assertEquals(0, termOffsets.getSizeInBytes());
+    }
+}
@@ -0,0 +1,108 @@
+package com.deerplatform.service;
+
+import com.deerplatform.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 管理后台导出CSV格式测试（内存H2数据库）
+ */
+public class AdminExporterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AdminExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:admin_export_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(50), email VARCHAR(100), " +
+                "nickname VARCHAR(50), role VARCHAR(20), status VARCHAR(20), email_verified BOOLEAN, " +
+                "location VARCHAR(100), last_login_time TIMESTAMP, created_at TIMESTAMP, updated_at TIMESTAMP)");
+        // H2不接受MySQL流式读取使用的Integer.MIN_VALUE
+        exporter = new AdminExporter(dataSource, 100);
+    }
+
+    @Test
+    void writesBomHeaderAndPlainFields() throws IOException {
+        insertUser(1, "deer", "林麝爱好者", "四川", "ACTIVE");
+
+        String csv = exportUsers(null);
+
+        assertTrue(csv.startsWith("﻿"));
+        String[] lines = csv.substring(1).split("\r\n");
+        assertEquals(2, lines.length);
+        assertEquals("id,username,email,nickname,role,status,email_verified,location,last_login_time,created_at,updated_at",
+                lines[0]);
+        assertEquals("1,deer,user1@example.com,林麝爱好者,USER,ACTIVE,true,四川,,2024-01-02T03:04:05,2024-01-02T03:04:05",
+                lines[1]);
+    }
+
+    @Test
+    void quotesFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        insertUser(1, "a,b", "say \"hi\"", "line1\nline2", "ACTIVE");
+        insertUser(2, "cr\rname", "plain", null, "ACTIVE");
+
+        String[] lines = rows(exportUsers(null));
+
+        assertTrue(lines[1].startsWith("1,\"a,b\",user1@example.com,\"say \"\"hi\"\"\",USER,ACTIVE,true,\"line1\nline2\","));
+        assertTrue(lines[2].startsWith("2,\"cr\rname\",user2@example.com,plain,USER,ACTIVE,true,,"));
+    }
+
+    @Test
+    void escapesFormulaPrefixesInText() throws IOException {
+        insertUser(1, "=1+2", "+cmd", "-2", "ACTIVE");
+        insertUser(2, "@SUM(A1)", "\tTab", "=a,b", "ACTIVE");
+        insertUser(3, "safe=1", "a+b", "a-b", "ACTIVE");
+
+        String[] lines = rows(exportUsers(null));
+
+        assertTrue(lines[1].startsWith("1,'=1+2,user1@example.com,'+cmd,USER,ACTIVE,true,'-2,"));
+        // 加上单引号后仍按需加引号
+        assertTrue(lines[2].startsWith("2,'@SUM(A1),user2@example.com,'\tTab,USER,ACTIVE,true,\"'=a,b\","));
+        // 只检查首字符
+        assertTrue(lines[3].startsWith("3,safe=1,user3@example.com,a+b,USER,ACTIVE,true,a-b,"));
+    }
+
+    @Test
+    void doesNotEscapeNumbersAndFiltersByStatus() throws IOException {
+        insertUser(1, "active", "n", "l", "ACTIVE");
+        insertUser(2, "banned", "n", "l", "BANNED");
+        // 负数ID不是文本，不加单引号
+        insertUser(-3, "negative", "n", "l", "BANNED");
+
+        String[] lines = rows(exportUsers(User.Status.BANNED));
+
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].startsWith("-3,negative,"));
+        assertTrue(lines[2].startsWith("2,banned,"));
+    }
+
+    private void insertUser(long id, String username, String nickname, String location, String status) {
+        jdbcTemplate.update("INSERT INTO users VALUES (?, ?, ?, ?, 'USER', ?, TRUE, ?, NULL, " +
+                        "TIMESTAMP '2024-01-02 03:04:05', TIMESTAMP '2024-01-02 03:04:05')",
+                id, username, "user" + id + "@example.com", nickname, status, location);
+    }
+
+    private String exportUsers(User.Status status) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.exportUsers(status, AdminExporter.Format.CSV, out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 按CSV行结束符拆分（字段内的换行已被引号包住，这里的用例不跨行比较）
+     */
+    private static String[] rows(String csv) {
+        return csv.substring(1).split("\r\n(?=-?\\d+,|$)");
+    }
+}
@@ -0,0 +1,211 @@
+package com.deerplatform.service;
+
+import com.deerplatform.dto.PostSummaryDTO;
+import com.deerplatform.entity.Category;
+import com.deerplatform.entity.Post;
+import com.deerplatform.entity.User;
+import com.deerplatform.entity.UserFavorite;
+import com.deerplatform.repository.CategoryRepository;
+import com.deerplatform.repository.PostRepository;
+import com.deerplatform.repository.UserFavoriteRepository;
+import com.deerplatform.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 帖子列表查询次数测试
+ *
+ * 每个列表请求的SQL条数必须是固定值，与页内帖子的作者、分类数量无关。
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PostQueryCountTest {
+
+    private static final int PAGE_SIZE = 5;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserFavoriteRepository userFavoriteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long categoryId;
+
+    private List<Long> postIds = new ArrayList<>();
+
+    private Long readerId;
+
+    @BeforeAll
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<User> authors = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            User user = new User();
+            user.setUsername("author" + i);
+            user.setEmail("author" + i + "@deerplatform.com");
+            user.setPassword("password");
+            user.setNickname("作者" + i);
+            authors.add(userRepository.save(user));
+        }
+
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Category category = new Category();
+            category.setName("分类" + i);
+            category.setStatus(Category.Status.ACTIVE);
+            category.setSortOrder(i);
+            categories.add(categoryRepository.save(category));
+        }
+        categoryId = categories.get(0).getId();
+
+        // 每页的帖子尽量来自不同作者和分类
+        for (int i = 0; i < 40; i++) {
+            Post post = new Post();
+            post.setTitle("林麝养殖经验 " + i);
+            post.setContent("<p>林麝养殖经验正文 " + i + "</p>");
+            post.setSummary("林麝养殖经验正文 " + i);
+            post.setAuthorId(authors.get(i % authors.size()).getId());
+            post.setCategoryId(categories.get(i % categories.size()).getId());
+            post.setStatus(Post.Status.PUBLISHED);
+            post.setViewCount(i);
+            postIds.add(postRepository.save(post).getId());
+        }
+
+        User reader = authors.get(0);
+        readerId = reader.getId();
+        for (int i = 0; i < 12; i++) {
+            UserFavorite favorite = new UserFavorite();
+            favorite.setUserId(reader.getId());
+            favorite.setPostId(postIds.get(i));
+            userFavoriteRepository.save(favorite);
+        }
+    }
+
+    @Test
+    public void listingUsesOneStatementPerPage() {
+        // 第3页之后不走列表缓存，先预热计数缓存
+        postService.getPosts(null, "latest", 3, PAGE_SIZE);
+
+        statistics.clear();
+        Page<PostSummaryDTO> posts = postService.getPosts(null, "latest", 4, PAGE_SIZE);
+
+        assertEquals(PAGE_SIZE, posts.getContent().size());
+        assertNotNull(posts.getContent().get(0).getAuthor().getNickname());
+        assertNotNull(posts.getContent().get(0).getCategory().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void categoryListingUsesFixedStatements() {
+        postService.getPosts(categoryId, "popular", 3, 2);
+
+        statistics.clear();
+        Page<PostSummaryDTO> posts = postService.getPosts(categoryId, "popular", 4, 2);
+
+        assertEquals(2, posts.getContent().size());
+        // 分类存在性检查 + 列表查询
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void searchUsesPageAndCountStatements() {
+        statistics.clear();
+        Page<PostSummaryDTO> posts = postService.searchPosts("林麝", 1, PAGE_SIZE);
+
+        assertEquals(PAGE_SIZE, posts.getContent().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void collectionsUseFixedStatements() {
+        statistics.clear();
+        Page<PostSummaryDTO> posts = postService.getUserCollections("author0", 1, PAGE_SIZE);
+
+        assertEquals(PAGE_SIZE, posts.getContent().size());
+        assertEquals(12, posts.getTotalElements());
+        // 用户查询 + 列表查询 + 总数查询
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void statusBatchUsesFixedStatements() {
+        statistics.clear();
+        Map<Long, Map<String, Object>> statuses = postService.getPostStatuses(postIds.subList(0, 20), readerId);
+
+        assertEquals(20, statuses.size());
+        assertEquals(true, statuses.get(postIds.get(0)).get("isFavorited"));
+        assertEquals(false, statuses.get(postIds.get(19)).get("isFavorited"));
+        // 计数列、已点赞、已收藏各一条查询
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void detailLoadsAuthorAndCategoryInOneStatement() {
+        statistics.clear();
+        postService.getPostById(postIds.get(postIds.size() - 1));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void likeOnCachedPostUsesTwoStatements() {
+        Long postId = postIds.get(30);
+        // 预热详情缓存
+        postService.getPostById(postId);
+
+        statistics.clear();
+        assertEquals(1, postService.likePost(postId, readerId));
+        // 插入点赞记录 + 调整点赞数，最新点赞数取自详情缓存
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        assertEquals(0, postService.unlikePost(postId, readerId));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @Transactional
+    public void entityPagesFetchAuthorAndCategoryWithEntityGraph() {
+        statistics.clear();
+        Page<Post> posts = postRepository.findByStatus(Post.Status.PUBLISHED, PageRequest.of(1, 10));
+        posts.forEach(post -> {
+            assertNotNull(post.getAuthor().getUsername());
+            assertNotNull(post.getCategory().getName());
+        });
+
+        // 列表查询 + 总数查询，访问作者和分类不再产生额外查询
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,100 @@
+package com.deerplatform.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 前K名小顶堆测试
+ */
+public class TopKHeapTest {
+
+    @Test
+    void keepsLargestValues() {
+        TopKHeap heap = new TopKHeap(3);
+        assertNull(heap.offer(1, 10));
+        assertNull(heap.offer(2, 30));
+        assertNull(heap.offer(3, 20));
+
+        assertFalse(heap.accepts(10));
+        assertNull(heap.offer(4, 5));
+        assertFalse(heap.contains(4));
+
+        assertEquals(Long.valueOf(1), heap.offer(5, 40));
+        assertArrayEquals(new long[]{5, 2, 3}, heap.sortedIds());
+    }
+
+    @Test
+    void updatesExistingIdInPlace() {
+        TopKHeap heap = new TopKHeap(3);
+        heap.offer(1, 10);
+        heap.offer(2, 20);
+        heap.offer(3, 30);
+
+        assertNull(heap.offer(3, 1));
+        assertEquals(3, heap.size());
+        assertEquals(1, heap.valueOf(3));
+        assertArrayEquals(new long[]{2, 1, 3}, heap.sortedIds());
+        // 下降后的值成为堆顶，新值大于它即可进入
+        assertEquals(Long.valueOf(3), heap.offer(4, 2));
+    }
+
+    @Test
+    void removeKeepsHeapOrder() {
+        TopKHeap heap = new TopKHeap(5);
+        for (long id = 1; id <= 5; id++) {
+            heap.offer(id, id * 10);
+        }
+        heap.remove(1);
+        heap.remove(99);
+        assertEquals(4, heap.size());
+        assertTrue(heap.accepts(1));
+        heap.offer(6, 5);
+        assertEquals(Long.valueOf(6), heap.offer(7, 100));
+        assertArrayEquals(new long[]{7, 5, 4, 3, 2}, heap.sortedIds());
+    }
+
+    @Test
+    void matchesModelUnderRandomOperations() {
+        Random random = new Random(7);
+        int capacity = 16;
+        TopKHeap heap = new TopKHeap(capacity);
+        Map<Long, Long> model = new HashMap<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            long id = random.nextInt(64);
+            if (random.nextInt(5) == 0) {
+                heap.remove(id);
+                model.remove(id);
+            } else {
+                long value = random.nextInt(1000);
+                boolean present = model.containsKey(id);
+                long min = model.isEmpty() ? Long.MIN_VALUE : Collections.min(model.values());
+                assertEquals(present || model.size() < capacity || value > min, present || heap.accepts(value));
+
+                Long evicted = heap.offer(id, value);
+                if (evicted != null) {
+                    // 被挤出的一定是当前最小值
+                    assertEquals(min, (long) model.remove(evicted));
+                    model.put(id, value);
+                } else if (present || model.size() < capacity) {
+                    model.put(id, value);
+                }
+            }
+
+            assertEquals(model.size(), heap.size());
+            long[] sorted = heap.sortedIds();
+            for (int i = 0; i < sorted.length; i++) {
+                assertEquals(model.get(sorted[i]), Long.valueOf(heap.valueOf(sorted[i])));
+                if (i > 0) {
+                    assertTrue(model.get(sorted[i - 1]) >= model.get(sorted[i]));
+                }
+            }
+        }
+    }
+}
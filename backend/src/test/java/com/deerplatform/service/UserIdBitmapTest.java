@@ -0,0 +1,115 @@
+package com.deerplatform.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户ID压缩位图测试
+ */
+public class UserIdBitmapTest {
+
+    @Test
+    void addRemoveAcrossBuckets() {
+        UserIdBitmap bitmap = new UserIdBitmap();
+        long[] ids = {0, 1, 65_535, 65_536, 1_000_000, 0xFFFFFFFFL};
+        for (long id : ids) {
+            assertTrue(bitmap.add(id));
+            assertFalse(bitmap.add(id));
+        }
+        assertEquals(ids.length, bitmap.cardinality());
+        for (long id : ids) {
+            assertTrue(bitmap.contains(id));
+        }
+        assertFalse(bitmap.contains(2));
+        assertFalse(bitmap.contains(65_537));
+
+        assertTrue(bitmap.remove(65_536));
+        assertFalse(bitmap.remove(65_536));
+        assertFalse(bitmap.contains(65_536));
+        assertTrue(bitmap.contains(65_535));
+        assertEquals(ids.length - 1, bitmap.cardinality());
+    }
+
+    @Test
+    void rejectsIdsOutOfRange() {
+        UserIdBitmap bitmap = new UserIdBitmap();
+        assertFalse(UserIdBitmap.accepts(-1));
+        assertFalse(UserIdBitmap.accepts(0x1_0000_0000L));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+        assertFalse(bitmap.contains(-1));
+        assertFalse(bitmap.remove(0x1_0000_0000L));
+    }
+
+    @Test
+    void convertsBetweenArrayAndBitmapContainers() {
+        UserIdBitmap bitmap = new UserIdBitmap();
+        // 桶1中的稀疏ID使用数组容器
+        long base = 65_536;
+        for (int i = 0; i < 100; i++) {
+            bitmap.add(base + i * 3);
+        }
+        assertTrue(bitmap.getSizeInBytes() < 1024);
+
+        // 超过4096个元素后转换为定长位图
+        for (int i = 100; i <= 4096; i++) {
+            bitmap.add(base + i * 3);
+        }
+        assertEquals(4097, bitmap.cardinality());
+        assertTrue(bitmap.getSizeInBytes() >= 8192);
+        assertAllPresent(bitmap, base, 4097);
+
+        // 降到阈值后转换回数组，元素不变
+        assertTrue(bitmap.remove(base));
+        assertEquals(4096, bitmap.cardinality());
+        assertFalse(bitmap.contains(base));
+        for (int i = 1; i <= 4096; i++) {
+            assertTrue(bitmap.contains(base + i * 3), "缺少 " + i);
+        }
+
+        // 再次超过阈值
+        assertTrue(bitmap.add(base));
+        assertAllPresent(bitmap, base, 4097);
+
+        // 全部删除后桶被移除
+        for (int i = 0; i <= 4096; i++) {
+            assertTrue(bitmap.remove(base + i * 3));
+        }
+        assertEquals(0, bitmap.cardinality());
+        assertFalse(bitmap.contains(base));
+        assertTrue(bitmap.getSizeInBytes() < 100);
+    }
+
+    @Test
+    void matchesHashSetUnderRandomOperations() {
+        Random random = new Random(11);
+        UserIdBitmap bitmap = new UserIdBitmap();
+        Set<Long> expected = new HashSet<>();
+        for (int step = 0; step < 200_000; step++) {
+            // 两个桶，一个稠密一个稀疏，反复跨越转换阈值
+            long id = random.nextBoolean() ? random.nextInt(9000) : 5L << 16 | random.nextInt(65_536);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id), bitmap.remove(id));
+            } else {
+                assertEquals(expected.add(id), bitmap.add(id));
+            }
+        }
+        assertEquals(expected.size(), bitmap.cardinality());
+        for (long id = 0; id < 9000; id++) {
+            assertEquals(expected.contains(id), bitmap.contains(id));
+        }
+        for (Long id : expected) {
+            assertTrue(bitmap.contains(id));
+        }
+    }
+
+    private static void assertAllPresent(UserIdBitmap bitmap, long base, int count) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(bitmap.contains(base + i * 3), "缺少 " + i);
+        }
+    }
+}
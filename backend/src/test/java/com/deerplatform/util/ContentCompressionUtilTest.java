@@ -0,0 +1,75 @@
+package com.deerplatform.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 正文压缩存储编码测试
+ */
+public class ContentCompressionUtilTest {
+
+    private static final String CONTENT = repeat("<p>林麝养殖笔记 musk deer 🦌 第一段正文</p>\n", 100);
+
+    @Test
+    void roundTripsUtf8Content() {
+        byte[] raw = CONTENT.getBytes(StandardCharsets.UTF_8);
+        String stored = ContentCompressionUtil.compress(raw, 6);
+
+        assertTrue(ContentCompressionUtil.isCompressed(stored));
+        assertTrue(stored.length() < raw.length);
+        assertEquals(raw.length, ContentCompressionUtil.rawLength(stored));
+        assertEquals(CONTENT, ContentCompressionUtil.decompress(stored));
+    }
+
+    @Test
+    void legacyAndPlainRowsAreReturnedAsIs() {
+        assertNull(ContentCompressionUtil.decompress(null));
+        assertEquals("", ContentCompressionUtil.decompress(""));
+        assertEquals(CONTENT, ContentCompressionUtil.decompress(CONTENT));
+        // 与魔数头相似但不完全相同的内容不是压缩格式
+        assertEquals("Z1:abc", ContentCompressionUtil.decompress("Z1:abc"));
+        assertEquals("\u0001Z2:abc", ContentCompressionUtil.decompress("\u0001Z2:abc"));
+
+        assertFalse(ContentCompressionUtil.isCompressed(CONTENT));
+        assertEquals(-1, ContentCompressionUtil.rawLength(CONTENT));
+        assertEquals(-1, ContentCompressionUtil.rawLength(null));
+    }
+
+    @Test
+    void rawLengthReadsOnlyTheHeader() {
+        String stored = ContentCompressionUtil.compress(CONTENT.getBytes(StandardCharsets.UTF_8), 1);
+        // 迁移任务只读取前几十个字符判断
+        String head = stored.substring(0, 20);
+        assertEquals(CONTENT.getBytes(StandardCharsets.UTF_8).length, ContentCompressionUtil.rawLength(head));
+        assertEquals(-1, ContentCompressionUtil.rawLength(ContentCompressionUtil.MAGIC + "12"));
+        assertEquals(-1, ContentCompressionUtil.rawLength(ContentCompressionUtil.MAGIC + "x:abc"));
+    }
+
+    @Test
+    void rejectsCorruptedValues() {
+        String stored = ContentCompressionUtil.compress(CONTENT.getBytes(StandardCharsets.UTF_8), 6);
+        int separator = stored.indexOf(':', ContentCompressionUtil.MAGIC.length());
+
+        // 记录的长度大于实际解压出的长度
+        int rawLength = CONTENT.getBytes(StandardCharsets.UTF_8).length;
+        String wrongLength = ContentCompressionUtil.MAGIC + (rawLength + 10) + stored.substring(separator);
+        assertThrows(IllegalStateException.class, () -> ContentCompressionUtil.decompress(wrongLength));
+        // 数据被截断
+        String truncated = stored.substring(0, separator + 12);
+        assertThrows(RuntimeException.class, () -> ContentCompressionUtil.decompress(truncated));
+        // 缺少分隔符
+        assertThrows(IllegalStateException.class,
+                () -> ContentCompressionUtil.decompress(ContentCompressionUtil.MAGIC + "123"));
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,125 @@
+package com.deerplatform.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 可重复使用的gzip压缩器测试
+ */
+public class GzipCompressorTest {
+
+    @Test
+    void outputIsReadableByGzipInputStream() throws IOException {
+        GzipCompressor compressor = new GzipCompressor(6, 512);
+        try {
+            byte[] raw = json(2000);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            compressor.start(out);
+            // 分多次写入，每次都大于内部缓冲区
+            for (int offset = 0; offset < raw.length; offset += 1500) {
+                compressor.write(raw, offset, Math.min(1500, raw.length - offset));
+            }
+            compressor.finish();
+
+            assertEquals(out.size(), compressor.getWritten());
+            assertTrue(out.size() < raw.length);
+            assertArrayEquals(raw, gunzip(out.toByteArray()));
+        } finally {
+            compressor.end();
+        }
+    }
+
+    @Test
+    void flushedDataCanBeDecompressedBeforeFinish() throws IOException {
+        GzipCompressor compressor = new GzipCompressor(6, 64);
+        try {
+            byte[] first = "{\"event\":\"first\"}\n".getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            compressor.start(out);
+            compressor.write(first, 0, first.length);
+            compressor.flush();
+
+            // 尚未写出尾部，已刷出的部分即可解压出第一段
+            byte[] partial = new byte[first.length];
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+                int read = 0;
+                while (read < partial.length) {
+                    int count = in.read(partial, read, partial.length - read);
+                    assertTrue(count > 0);
+                    read += count;
+                }
+            }
+            assertArrayEquals(first, partial);
+
+            byte[] second = json(200);
+            compressor.write(second, 0, second.length);
+            compressor.flush();
+            // 没有新输入时再次flush不产生数据
+            long written = compressor.getWritten();
+            compressor.flush();
+            assertEquals(written, compressor.getWritten());
+            compressor.finish();
+
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            expected.write(first);
+            expected.write(second);
+            assertArrayEquals(expected.toByteArray(), gunzip(out.toByteArray()));
+        } finally {
+            compressor.end();
+        }
+    }
+
+    @Test
+    void reusedAcrossStreams() throws IOException {
+        GzipCompressor compressor = new GzipCompressor(1, 256);
+        try {
+            Random random = new Random(7);
+            for (int i = 0; i < 3; i++) {
+                byte[] raw = new byte[1000 + i * 5000];
+                random.nextBytes(raw);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                compressor.start(out);
+                compressor.write(raw, 0, raw.length);
+                compressor.finish();
+                assertArrayEquals(raw, gunzip(out.toByteArray()));
+            }
+
+            // 空响应也是合法的gzip流
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            compressor.start(out);
+            compressor.finish();
+            assertEquals(0, gunzip(out.toByteArray()).length);
+        } finally {
+            compressor.end();
+        }
+    }
+
+    static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int count;
+            while ((count = in.read(buffer)) > 0) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] json(int items) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < items; i++) {
+            builder.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"title\":\"林麝养殖").append(i).append("\"}");
+        }
+        return builder.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
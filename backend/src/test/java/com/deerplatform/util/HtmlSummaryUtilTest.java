@@ -0,0 +1,63 @@
+package com.deerplatform.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HTML摘要生成测试
+ */
+public class HtmlSummaryUtilTest {
+
+    @Test
+    void stripsTagsCommentsAndRawText() {
+        String html = "<h1>Title</h1><!-- note --><p>Body <b>bold</b></p>"
+                + "<script>var x = '<p>';</script><style>p{}</style><div>end</div>";
+        assertEquals("Title Body bold end", HtmlSummaryUtil.summarize(html, 100));
+    }
+
+    @Test
+    void decodesNamedAndNumericEntities() {
+        String html = "a&nbsp;&lt;b&gt;&amp;&quot;&hellip;&#65;&#x42;&#X43;&mdash;";
+        assertEquals("a <b>&\"…ABC—", HtmlSummaryUtil.summarize(html, 100));
+    }
+
+    @Test
+    void keepsInvalidEntitiesAsText() {
+        assertEquals("&unknown; &#; &#xZZ; & x", HtmlSummaryUtil.summarize("&unknown; &#; &#xZZ; & x", 100));
+        // 代理区码点和超出范围的码点不解码
+        assertEquals("&#xD800;&#1114112;", HtmlSummaryUtil.summarize("&#xD800;&#1114112;", 100));
+    }
+
+    @Test
+    void collapsesWhitespace() {
+        assertEquals("a b c", HtmlSummaryUtil.summarize("  a \n\t b&nbsp;&nbsp;c  ", 100));
+        assertEquals("", HtmlSummaryUtil.summarize(" <p> </p> ", 100));
+        assertEquals("", HtmlSummaryUtil.summarize(null, 100));
+    }
+
+    @Test
+    void countsCodePointsAndNeverSplitsSurrogates() {
+        String emoji = "😀";
+        String html = emoji + emoji + emoji + emoji;
+        assertEquals(emoji + emoji + emoji + "...", HtmlSummaryUtil.summarize(html, 3));
+        assertEquals(html, HtmlSummaryUtil.summarize(html, 4));
+        // 实体解码出的补充平面字符同样按一个字符计
+        assertEquals(emoji + "x...", HtmlSummaryUtil.summarize("&#x1F600;xyz", 2));
+    }
+
+    @Test
+    void truncatesAfterMaxLength() {
+        assertEquals("abc...", HtmlSummaryUtil.summarize("<p>abcdef</p>", 3));
+        assertEquals("abc", HtmlSummaryUtil.summarize("<p>abc</p>   ", 3));
+        // 截断位置的空白不计入结果
+        assertEquals("abc...", HtmlSummaryUtil.summarize("abc def", 4));
+    }
+
+    @Test
+    void lessThanWithoutTagIsText() {
+        assertEquals("1 < 2, x <= 3", HtmlSummaryUtil.summarize("1 < 2, x <= 3", 100));
+        // 未闭合的标签与浏览器一样吞掉后续内容
+        assertEquals("a", HtmlSummaryUtil.summarize("a<b c", 100));
+    }
+}
@@ -1,8 +1,13 @@
+// 带ETag的GET响应最多缓存条数
+const RESPONSE_CACHE_SIZE = 50;
+
 // API请求工具类
 class ApiClient {
     constructor() {
         this.baseURL = API_BASE_URL;
         this.token = localStorage.getItem('token');
+        // GET响应缓存：url -> { etag, text }，每次请求都带If-None-Match重新验证，304时使用缓存内容
+        this.responseCache = new Map();
     }
     
     async request(endpoint, options = {}) {
@@ -24,8 +29,23 @@ class ApiClient {
                 config.headers['Authorization'] = `Bearer ${token}`;
             }
             
+            // GET请求带上缓存的ETag；自行处理304，不使用浏览器缓存
+            const isGet = !config.method || config.method.toUpperCase() === 'GET';
+            const cached = isGet ? this.responseCache.get(url) : null;
+            if (cached) {
+                config.headers['If-None-Match'] = cached.etag;
+                config.cache = 'no-store';
+            }
+            
             const response = await fetch(url, config);
             
+            // 内容未变化，返回缓存内容（每次重新解析，调用方修改返回值不影响缓存）
+            if (response.status === 304 && cached) {
+                this.responseCache.delete(url);
+                this.responseCache.set(url, cached);
+                return JSON.parse(cached.text);
+            }
+            
             // 检查响应类型
             const contentType = response.headers.get('content-type');
             if (!contentType || !contentType.includes('application/json')) {
@@ -34,12 +54,17 @@ class ApiClient {
                 throw new Error('服务器响应格式错误，请检查后端服务是否正常运行');
             }
             
-            const data = await response.json();
+            const text = await response.text();
+            const data = JSON.parse(text);
             
             if (!response.ok) {
                 throw new Error(data.message || `HTTP error! status: ${response.status}`);
             }
             
+            if (isGet) {
+                this.cacheResponse(url, response.headers.get('ETag'), text);
+            }
+            
             return data;
         } catch (error) {
             console.error('API请求失败:', error);
@@ -50,6 +75,18 @@ class ApiClient {
         }
     }
     
+    // 缓存带ETag的GET响应，超出容量时淘汰最久未使用的条目
+    cacheResponse(url, etag, text) {
+        this.responseCache.delete(url);
+        if (!etag) {
+            return;
+        }
+        this.responseCache.set(url, { etag, text });
+        if (this.responseCache.size > RESPONSE_CACHE_SIZE) {
+            this.responseCache.delete(this.responseCache.keys().next().value);
+        }
+    }
+    
     // 文件上传请求
     async uploadFile(endpoint, formData) {
         const url = this.baseURL + endpoint;
@@ -236,6 +273,18 @@ const postAPI = {
         return await apiClient.get(`${API_ENDPOINTS.POSTS}${queryString ? '?' + queryString : ''}`);
     },
     
+    // 游标分页获取帖子列表（适合无限滚动，翻页深度不影响性能）
+    getListByCursor: async (params = {}) => {
+        const queryParams = new URLSearchParams();
+        if (params.categoryId) queryParams.append('categoryId', params.categoryId);
+        if (params.sortBy) queryParams.append('sortBy', params.sortBy);
+        if (params.cursor) queryParams.append('cursor', params.cursor);
+        if (params.size !== undefined) queryParams.append('size', params.size);
+        
+        const queryString = queryParams.toString();
+        return await apiClient.get(`${API_ENDPOINTS.POSTS}/cursor${queryString ? '?' + queryString : ''}`);
+    },
+    
     // 获取帖子详情
     getById: async (id) => {
         return await apiClient.get(`${API_ENDPOINTS.POST_DETAIL}/${id}`);
@@ -258,6 +307,12 @@ const postAPI = {
         return await apiClient.get(`${API_ENDPOINTS.POST_SEARCH}?${searchParams}`);
     },
     
+    // 搜索建议（标题和标签前缀）
+    suggest: async (prefix, limit = 8) => {
+        const params = new URLSearchParams({ prefix, limit });
+        return await apiClient.get(`${API_ENDPOINTS.POST_SUGGEST}?${params}`);
+    },
+    
     // 获取热门帖子
     getPopular: async (page = 0, size = 10) => {
         const params = new URLSearchParams({ page, size });
@@ -281,6 +336,16 @@ const postAPI = {
         return await apiClient.post(`${API_ENDPOINTS.POSTS}/${postId}/like`);
     },
     
+    // 点赞帖子（重复请求不会重复计数）
+    like: async (postId) => {
+        return await apiClient.put(`${API_ENDPOINTS.POSTS}/${postId}/like`);
+    },
+    
+    // 取消点赞（重复请求不会重复计数）
+    unlike: async (postId) => {
+        return await apiClient.delete(`${API_ENDPOINTS.POSTS}/${postId}/like`);
+    },
+    
     // 收藏/取消收藏帖子
     toggleFavorite: async (postId) => {
         return await apiClient.post(`${API_ENDPOINTS.POSTS}/${postId}/favorite`);
@@ -289,6 +354,11 @@ const postAPI = {
     // 获取帖子状态（点赞、收藏状态）
     getStatus: async (postId) => {
         return await apiClient.get(`${API_ENDPOINTS.POSTS}/${postId}/status`);
+    },
+    
+    // 批量获取帖子状态（列表页一次请求获取整页帖子的点赞、收藏状态）
+    getStatusBatch: async (postIds) => {
+        return await apiClient.post(API_ENDPOINTS.POST_STATUS_BATCH, { postIds });
     }
 };
 
@@ -304,6 +374,12 @@ const categoryAPI = {
         return await apiClient.get(`${API_ENDPOINTS.CATEGORIES}/${id}`);
     },
     
+    // 获取分类排行榜（metric: views 浏览量，likes 点赞数）
+    getLeaderboard: async (id, metric = 'views', limit = 10) => {
+        const params = new URLSearchParams({ metric, limit });
+        return await apiClient.get(`${API_ENDPOINTS.CATEGORIES}/${id}/leaderboard?${params}`);
+    },
+    
     // 创建分类（管理员）
     create: async (name, description, icon) => {
         const params = new URLSearchParams({ name });
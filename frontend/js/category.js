@@ -252,7 +252,7 @@ function displayPosts(posts) {
                         <a href="post-detail.html?id=${post.id}">${escapeHtml(post.title)}</a>
                     </h3>
                     <p class="post-excerpt">
-                        ${escapeHtml(post.summary || post.content.substring(0, 150) + '...')}
+                        ${escapeHtml(post.summary || (post.content || '').substring(0, 150))}
                     </p>
                     <div class="post-meta">
                         <div class="post-author">
@@ -270,7 +270,7 @@ function displayPosts(posts) {
                                 <span>💬</span>
                                 <span>${post.commentCount || 0}</span>
                             </div>
-                            <div class="stat-item">
+                            <div class="stat-item" data-like-post-id="${post.id}">
                                 <span>👍</span>
                                 <span>${post.likeCount || 0}</span>
                             </div>
@@ -280,6 +280,24 @@ function displayPosts(posts) {
                 </div>
             </article>
         `).join('');
+        loadPostStatuses(posts);
+    }
+}
+
+// 登录用户一次请求获取整页帖子的点赞状态，标记已点赞的帖子并刷新点赞数
+async function loadPostStatuses(posts) {
+    if (!localStorage.getItem('token') || posts.length === 0) return;
+    try {
+        const response = await postAPI.getStatusBatch(posts.map(post => post.id));
+        if (!response.success) return;
+        Object.entries(response.data).forEach(([postId, status]) => {
+            const likeItem = document.querySelector(`.stat-item[data-like-post-id="${postId}"]`);
+            if (!likeItem) return;
+            likeItem.classList.toggle('liked', status.isLiked);
+            likeItem.lastElementChild.textContent = status.likeCount;
+        });
+    } catch (error) {
+        console.error('获取帖子状态失败:', error);
     }
 }
 
@@ -342,16 +360,17 @@ function changePage(page) {
 // 加载热门帖子
 async function loadHotPosts() {
     try {
-        const response = await postAPI.getList({
-            page: 1,
-            size: 5,
-            sortBy: 'viewCount',
-            sortOrder: 'desc',
-            status: 'PUBLISHED'
-        });
-        
-        if (response.success) {
-            displayHotPosts(response.data.posts);
+        // 分类页读取分类排行榜，全部帖子页读取全站热门
+        if (currentCategory) {
+            const response = await categoryAPI.getLeaderboard(currentCategory, 'views', 5);
+            if (response.success) {
+                displayHotPosts(response.data || []);
+            }
+        } else {
+            const response = await postAPI.getPopular(0, 5);
+            if (response.success) {
+                displayHotPosts(response.data.content || []);
+            }
         }
     } catch (error) {
         console.error('加载热门帖子失败:', error);
@@ -23,6 +23,8 @@ const API_ENDPOINTS = {
     POSTS: '/posts',
     POST_DETAIL: '/posts',
     POST_SEARCH: '/posts/search',
+    POST_SUGGEST: '/posts/suggest',
+    POST_STATUS_BATCH: '/posts/status/batch',
     POST_POPULAR: '/posts/popular',
     POST_MY: '/posts/my',
     
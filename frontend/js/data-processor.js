@@ -129,8 +129,11 @@ class DataProcessor {
         return {
             id: post.id,
             title: this.escapeHtml(post.title),
-            content: this.escapeHtml(post.content),
-            summary: this.generateSummary(post.content),
+            content: this.escapeHtml(post.content || ''),
+            // 列表接口只返回摘要，不含正文
+            summary: post.summary ? this.escapeHtml(post.summary) : this.generateSummary(post.content),
+            // 搜索命中片段由服务端转义，只包含<mark>标签
+            highlight: post.highlight || '',
             author: {
                 id: post.author?.id,
                 username: this.escapeHtml(post.author?.username || ''),
@@ -169,9 +169,47 @@ function initializeSearch() {
             }
         });
         console.log('搜索输入框回车事件监听器已绑定');
+        
+        initializeSuggest(searchInput);
     }
 }
 
+// 输入时显示搜索建议（防抖，使用datalist展示）
+function initializeSuggest(searchInput) {
+    const datalist = document.createElement('datalist');
+    datalist.id = 'search-suggestions';
+    searchInput.setAttribute('list', datalist.id);
+    searchInput.setAttribute('autocomplete', 'off');
+    searchInput.parentNode.appendChild(datalist);
+    
+    let timer = null;
+    let latestPrefix = '';
+    searchInput.addEventListener('input', function() {
+        clearTimeout(timer);
+        const prefix = searchInput.value.trim();
+        if (!prefix) {
+            datalist.innerHTML = '';
+            return;
+        }
+        timer = setTimeout(async () => {
+            latestPrefix = prefix;
+            try {
+                const response = await postAPI.suggest(prefix);
+                // 丢弃过期的响应
+                if (prefix !== latestPrefix || !response.success) return;
+                datalist.innerHTML = '';
+                (response.data || []).forEach(item => {
+                    const option = document.createElement('option');
+                    option.value = item.text;
+                    datalist.appendChild(option);
+                });
+            } catch (error) {
+                console.warn('获取搜索建议失败:', error);
+            }
+        }, 150);
+    });
+}
+
 // 执行搜索
 async function performSearch() {
     console.log('performSearch函数被调用');
@@ -290,7 +328,7 @@ function displaySearchResults(searchData, keyword) {
                         <span class="post-time">${formattedPost.formattedTime}</span>
                         <span class="post-author">作者: ${formattedPost.author.nickname}</span>
                     </div>
-                    <div class="post-excerpt">${formattedPost.summary || ''}</div>
+                    <div class="post-excerpt">${formattedPost.highlight || formattedPost.summary || ''}</div>
                 </div>
             `;
             resultsContent.appendChild(postElement);
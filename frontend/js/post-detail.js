@@ -272,15 +272,14 @@ async function toggleLike() {
     }
     
     try {
-        const response = await postAPI.toggleLike(currentPost.id);
+        // 按目标状态请求，重复点击或网络重试不会重复计数
+        const response = currentPost.isLiked
+            ? await postAPI.unlike(currentPost.id)
+            : await postAPI.like(currentPost.id);
         if (response.success) {
-            // 更新点赞状态
+            // 更新点赞状态和计数
             currentPost.isLiked = response.data.isLiked;
-            // 重新获取帖子状态以更新计数
-            const statusResponse = await postAPI.getStatus(currentPost.id);
-            if (statusResponse.success) {
-                currentPost.likeCount = statusResponse.data.likeCount;
-            }
+            currentPost.likeCount = response.data.likeCount;
             updatePostActions();
         } else {
             alert('操作失败: ' + (response.message || '未知错误'));